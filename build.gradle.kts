@@ -50,4 +50,23 @@ tasks.register<Jar>("mpiJar") {
     manifest {
         attributes["Main-Class"] = "org.example.mpi.MPIMain"
     }
-}
\ No newline at end of file
+}
+
+// Scaling benchmark: ./gradlew benchmark -PbenchArgs="--backend=both --islands=1,2,4,8 --seeds=5"
+tasks.register<JavaExec>("benchmark") {
+    group = "application"
+    description = "Runs the scaling sweeps, writes CSV + Markdown to bench-results/ and updates PERFORMANCE.md"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("org.example.bench.ScalingBenchmark")
+    args = (project.findProperty("benchArgs") as String?)?.split(" ") ?: emptyList()
+}
+
+// Batch solver: ./gradlew batch -PbatchArgs="instances/" (-Dga.* properties are passed through)
+tasks.register<JavaExec>("batch") {
+    group = "application"
+    description = "Solves many instances on one shared work-stealing pool, streaming one CSV line per instance"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("org.example.regular.BatchMain")
+    args = (project.findProperty("batchArgs") as String?)?.split(" ") ?: emptyList()
+    systemProperties(System.getProperties().filterKeys { it.toString().startsWith("ga.") }.mapKeys { it.key.toString() })
+}
@@ -0,0 +1,484 @@
+package org.example.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Reproducible scaling benchmark for ConcurrentMain and MPIMain
+ *
+ * Every run is a fresh JVM (or a local mpirun job) configured through -Dga.* system properties,
+ * so the numbers include the same startup and data generation cost a user sees.
+ *
+ * SWEEPS:
+ * - strong:    fixed instance and total population, split over 1..N islands
+ * - weak:      fixed population per island, 1..N islands (the PERFORMANCE.md table)
+ * - migration:  fixed islands, varying MIGRATION_INTERVAL
+ * - population: fixed islands, varying POPULATION_SIZE per island
+ * - instance:   fixed islands, growing generateRandom instance
+ *
+ * The tables are written to bench-results/summary.md and replace the generated section of
+ * PERFORMANCE.md (between the BENCHMARK_BEGIN / BENCHMARK_END markers; --performance= to skip).
+ *
+ * Usage: ScalingBenchmark [--backend=concurrent|mpi|both] [--islands=1,2,4,8] [--seeds=5]
+ *                         [--sweeps=strong,weak,migration,population,instance] [--out=bench-results]
+ *                         [--mpirun=mpirun] [--timeout=300] [--performance=PERFORMANCE.md]
+ */
+public class ScalingBenchmark {
+    private static final Pattern TOTAL_TIME = Pattern.compile("Total time: (\\d+) ms");
+    private static final Pattern GENERATIONS = Pattern.compile("Generations: (\\d+)");
+    private static final Pattern EVALUATIONS = Pattern.compile("Evaluations: (\\d+)");
+    private static final Pattern BEST_FITNESS = Pattern.compile("Best solution fitness: (\\d+)");
+    private static final String BENCHMARK_BEGIN = "<!-- benchmark:begin -->";
+    private static final String BENCHMARK_END = "<!-- benchmark:end -->";
+
+    // Defaults matching the mains, used as the fixed point of every sweep
+    private static final int BASE_POPULATION = 100;
+    private static final int BASE_MIGRATION_INTERVAL = 50;
+    private static final int BASE_CLASSES = 40;
+    private static final int STRONG_TOTAL_POPULATION = 400;
+    private static final int FIXED_ISLANDS = 4;
+    private static final int[] MIGRATION_INTERVALS = {10, 25, 50, 100};
+    private static final int[] POPULATION_SIZES = {50, 100, 200, 400};
+    private static final int[] INSTANCE_CLASSES = {40, 80, 160};
+
+    /**
+     * One point in the configuration space
+     */
+    static final class Config {
+        final String sweep;
+        final String backend;
+        final int islands;
+        final int populationSize;
+        final int migrationInterval;
+        final int classes;
+
+        Config(String sweep, String backend, int islands, int populationSize, int migrationInterval, int classes) {
+            this.sweep = sweep;
+            this.backend = backend;
+            this.islands = islands;
+            this.populationSize = populationSize;
+            this.migrationInterval = migrationInterval;
+            this.classes = classes;
+        }
+
+        // Rooms, teachers and groups grow with the class count, keeping the 40:8:10:6 ratio of the mains
+        int rooms() {
+            return Math.max(1, classes / 5);
+        }
+
+        int teachers() {
+            return Math.max(1, classes / 4);
+        }
+
+        int groups() {
+            return Math.max(1, classes * 3 / 20);
+        }
+
+        String key() {
+            return sweep + "," + backend + "," + islands + "," + populationSize + "," + migrationInterval + "," + classes;
+        }
+    }
+
+    /**
+     * Outcome of one run (one configuration, one seed)
+     * A run that failed or timed out is kept as an unsolved run (status "failed" / "timeout",
+     * bestFitness -1), so that it still counts in the success rate and the mean time
+     */
+    static final class RunResult {
+        final Config config;
+        final long seed;
+        final String status;
+        final long timeMs;
+        final int generations;
+        final long evaluations;
+        final int bestFitness;
+
+        RunResult(Config config, long seed, String status, long timeMs, int generations, long evaluations, int bestFitness) {
+            this.config = config;
+            this.seed = seed;
+            this.status = status;
+            this.timeMs = timeMs;
+            this.generations = generations;
+            this.evaluations = evaluations;
+            this.bestFitness = bestFitness;
+        }
+
+        static RunResult unsolved(Config config, long seed, String status, long timeMs) {
+            return new RunResult(config, seed, status, timeMs, 0, 0, -1);
+        }
+
+        boolean completed() {
+            return status.equals("ok");
+        }
+
+        boolean solved() {
+            return completed() && bestFitness == 0;
+        }
+
+        double evaluationsPerSecond() {
+            return timeMs == 0 ? 0 : evaluations * 1000.0 / timeMs;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        String backendOption = options.getOrDefault("backend", "concurrent");
+        int[] islandCounts = Arrays.stream(options.getOrDefault("islands", "1,2,4,8").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int numSeeds = Integer.parseInt(options.getOrDefault("seeds", "5"));
+        Set<String> sweeps = new LinkedHashSet<>(Arrays.asList(
+                options.getOrDefault("sweeps", "strong,weak,migration,population,instance").split(",")));
+        Path outDir = Paths.get(options.getOrDefault("out", "bench-results"));
+        String mpirun = options.getOrDefault("mpirun", "mpirun");
+        long timeoutSeconds = Long.parseLong(options.getOrDefault("timeout", "300"));
+        String performanceFile = options.getOrDefault("performance", "PERFORMANCE.md");
+
+        List<String> backends = backendOption.equals("both")
+                ? List.of("concurrent", "mpi")
+                : List.of(backendOption);
+
+        List<Config> configs = new ArrayList<>();
+        for (String backend : backends) {
+            configs.addAll(buildConfigs(backend, sweeps, islandCounts));
+        }
+
+        System.out.println("=".repeat(70));
+        System.out.println("SCALING BENCHMARK");
+        System.out.println("=".repeat(70));
+        System.out.println("Configurations: " + configs.size() + " x " + numSeeds + " seeds");
+        System.out.println("Output: " + outDir.toAbsolutePath());
+
+        Files.createDirectories(outDir);
+        List<RunResult> results = new ArrayList<>();
+
+        try (PrintWriter raw = new PrintWriter(Files.newBufferedWriter(outDir.resolve("runs.csv"), StandardCharsets.UTF_8))) {
+            raw.println("sweep,backend,islands,population,migration_interval,classes,seed,status,time_ms,generations,evaluations,best_fitness,solved");
+
+            for (Config config : configs) {
+                for (int s = 0; s < numSeeds; s++) {
+                    long seed = 12345L + s * 7919L;
+                    RunResult result = runOnce(config, seed, mpirun, timeoutSeconds);
+                    results.add(result);
+                    raw.printf(Locale.ROOT, "%s,%d,%s,%d,%d,%d,%d,%b%n", config.key(), seed, result.status, result.timeMs,
+                            result.generations, result.evaluations, result.bestFitness, result.solved());
+                    raw.flush();
+                    if (result.completed()) {
+                        System.out.printf(Locale.ROOT, "%-40s seed=%-6d time=%6d ms gens=%4d best=%3d%n",
+                                config.key(), seed, result.timeMs, result.generations, result.bestFitness);
+                    } else {
+                        System.out.printf(Locale.ROOT, "%-40s seed=%-6d %s after %d ms%n",
+                                config.key(), seed, result.status.toUpperCase(Locale.ROOT), result.timeMs);
+                    }
+                }
+            }
+        }
+
+        List<Summary> summaries = summarize(configs, results);
+        writeSummaryCsv(outDir.resolve("summary.csv"), summaries);
+        writeMarkdown(outDir.resolve("summary.md"), summaries, numSeeds);
+
+        System.out.println("\nWrote " + outDir.resolve("runs.csv") + ", summary.csv and summary.md");
+        if (!performanceFile.isEmpty()) {
+            updatePerformanceDoc(Paths.get(performanceFile), summaries, numSeeds);
+        }
+    }
+
+    /**
+     * Expand the requested sweeps into concrete configurations
+     */
+    private static List<Config> buildConfigs(String backend, Set<String> sweeps, int[] islandCounts) {
+        List<Config> configs = new ArrayList<>();
+
+        if (sweeps.contains("strong")) {
+            for (int islands : islandCounts) {
+                int populationSize = Math.max(10, STRONG_TOTAL_POPULATION / islands);
+                configs.add(new Config("strong", backend, islands, populationSize, BASE_MIGRATION_INTERVAL, BASE_CLASSES));
+            }
+        }
+        if (sweeps.contains("weak")) {
+            for (int islands : islandCounts) {
+                configs.add(new Config("weak", backend, islands, BASE_POPULATION, BASE_MIGRATION_INTERVAL, BASE_CLASSES));
+            }
+        }
+        if (sweeps.contains("migration")) {
+            for (int interval : MIGRATION_INTERVALS) {
+                configs.add(new Config("migration", backend, FIXED_ISLANDS, BASE_POPULATION, interval, BASE_CLASSES));
+            }
+        }
+        if (sweeps.contains("population")) {
+            for (int populationSize : POPULATION_SIZES) {
+                configs.add(new Config("population", backend, FIXED_ISLANDS, populationSize, BASE_MIGRATION_INTERVAL, BASE_CLASSES));
+            }
+        }
+        if (sweeps.contains("instance")) {
+            for (int classes : INSTANCE_CLASSES) {
+                configs.add(new Config("instance", backend, FIXED_ISLANDS, BASE_POPULATION, BASE_MIGRATION_INTERVAL, classes));
+            }
+        }
+
+        return configs;
+    }
+
+    /**
+     * Launch one solver process and parse its final report
+     * A run that exceeds the timeout is killed and reported with time = timeout
+     */
+    private static RunResult runOnce(Config config, long seed, String mpirun, long timeoutSeconds)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        String mainClass;
+
+        if (config.backend.equals("mpi")) {
+            command.addAll(Arrays.asList(mpirun.split(" ")));
+            command.add("-np");
+            command.add(String.valueOf(config.islands));
+            mainClass = "org.example.mpi.MPIMain";
+        } else {
+            mainClass = "org.example.regular.ConcurrentMain";
+        }
+
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Dga.islands=" + config.islands);
+        command.add("-Dga.populationSize=" + config.populationSize);
+        command.add("-Dga.migrationInterval=" + config.migrationInterval);
+        command.add("-Dga.classes=" + config.classes);
+        command.add("-Dga.rooms=" + config.rooms());
+        command.add("-Dga.teachers=" + config.teachers());
+        command.add("-Dga.groups=" + config.groups());
+        command.add("-Dga.seed=" + seed);
+        // Check for a solution often enough that generations-to-zero is meaningful for MPI too
+        command.add("-Dga.reportInterval=10");
+        command.add(mainClass);
+
+        long start = System.currentTimeMillis();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        // Output is drained on its own thread, so a stalled solver cannot block the timeout
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        Thread drain = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                // Stream closed by destroyForcibly: the run is reported as timed out below
+            }
+        }, "bench-output");
+        drain.setDaemon(true);
+        drain.start();
+
+        if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            process.waitFor(10, TimeUnit.SECONDS);
+            return RunResult.unsolved(config, seed, "timeout", TimeUnit.SECONDS.toMillis(timeoutSeconds));
+        }
+        drain.join(TimeUnit.SECONDS.toMillis(10));
+        long elapsed = System.currentTimeMillis() - start;
+
+        Long timeMs = null;
+        Integer generations = null;
+        Long evaluations = null;
+        Integer bestFitness = null;
+
+        synchronized (lines) {
+            for (String line : lines) {
+                Matcher m;
+                if ((m = TOTAL_TIME.matcher(line)).find()) {
+                    timeMs = Long.parseLong(m.group(1));
+                } else if ((m = GENERATIONS.matcher(line)).find()) {
+                    generations = Integer.parseInt(m.group(1));
+                } else if ((m = EVALUATIONS.matcher(line)).find()) {
+                    evaluations = Long.parseLong(m.group(1));
+                } else if ((m = BEST_FITNESS.matcher(line)).find()) {
+                    bestFitness = Integer.parseInt(m.group(1));
+                }
+            }
+        }
+
+        if (process.exitValue() != 0 || timeMs == null || generations == null || evaluations == null || bestFitness == null) {
+            return RunResult.unsolved(config, seed, "failed", elapsed);
+        }
+
+        return new RunResult(config, seed, "ok", timeMs, generations, evaluations, bestFitness);
+    }
+
+    /**
+     * Aggregated statistics for one configuration over all seeds
+     */
+    static final class Summary {
+        final Config config;
+        final int runs;
+        final double successRate;
+        final double meanTimeMs;
+        final double meanSolvedTimeMs;
+        final double meanGenerationsToZero;
+        final double meanEvaluationsPerSecond;
+        double speedup = Double.NaN;
+        double efficiency = Double.NaN;
+
+        Summary(Config config, List<RunResult> runs) {
+            this.config = config;
+            this.runs = runs.size();
+            List<RunResult> solved = runs.stream().filter(RunResult::solved).collect(Collectors.toList());
+            this.successRate = runs.isEmpty() ? 0 : (double) solved.size() / runs.size();
+            this.meanTimeMs = runs.stream().mapToLong(r -> r.timeMs).average().orElse(Double.NaN);
+            this.meanSolvedTimeMs = solved.stream().mapToLong(r -> r.timeMs).average().orElse(Double.NaN);
+            this.meanGenerationsToZero = solved.stream().mapToInt(r -> r.generations).average().orElse(Double.NaN);
+            this.meanEvaluationsPerSecond = runs.stream().filter(RunResult::completed)
+                    .mapToDouble(RunResult::evaluationsPerSecond).average().orElse(Double.NaN);
+        }
+    }
+
+    /**
+     * Group runs by configuration and compute speedup/efficiency inside the strong and weak sweeps
+     */
+    private static List<Summary> summarize(List<Config> configs, List<RunResult> results) {
+        Map<String, List<RunResult>> byConfig = results.stream()
+                .collect(Collectors.groupingBy(r -> r.config.key(), LinkedHashMap::new, Collectors.toList()));
+
+        List<Summary> summaries = new ArrayList<>();
+        for (Config config : configs) {
+            summaries.add(new Summary(config, byConfig.getOrDefault(config.key(), List.of())));
+        }
+
+        for (String sweep : List.of("strong", "weak")) {
+            for (String backend : List.of("concurrent", "mpi")) {
+                List<Summary> group = summaries.stream()
+                        .filter(s -> s.config.sweep.equals(sweep) && s.config.backend.equals(backend))
+                        .collect(Collectors.toList());
+                if (group.isEmpty()) continue;
+
+                Summary baseline = group.stream().min(Comparator.comparingInt(s -> s.config.islands)).get();
+                for (Summary s : group) {
+                    s.speedup = baseline.meanTimeMs / s.meanTimeMs;
+                    // Strong scaling: ideal speedup is the island ratio. Weak scaling: ideal time is constant.
+                    s.efficiency = sweep.equals("strong")
+                            ? s.speedup * baseline.config.islands / s.config.islands
+                            : s.speedup;
+                }
+            }
+        }
+
+        return summaries;
+    }
+
+    private static void writeSummaryCsv(Path file, List<Summary> summaries) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("sweep,backend,islands,population,migration_interval,classes,runs,success_rate,"
+                    + "mean_time_ms,mean_solved_time_ms,mean_generations_to_zero,evaluations_per_sec,speedup,efficiency");
+            for (Summary s : summaries) {
+                out.printf(Locale.ROOT, "%s,%d,%.3f,%.1f,%.1f,%.1f,%.0f,%.3f,%.3f%n", s.config.key(), s.runs,
+                        s.successRate, s.meanTimeMs, s.meanSolvedTimeMs, s.meanGenerationsToZero,
+                        s.meanEvaluationsPerSecond, s.speedup, s.efficiency);
+            }
+        }
+    }
+
+    private static void writeMarkdown(Path file, List<Summary> summaries, int numSeeds) throws IOException {
+        String text = "# Scaling Benchmark Results\n\n"
+                + "Generated by `org.example.bench.ScalingBenchmark`, " + numSeeds + " seeds per configuration.\n"
+                + renderTables(summaries, "##");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replace the generated section of PERFORMANCE.md (between the markers) with the new tables
+     */
+    private static void updatePerformanceDoc(Path file, List<Summary> summaries, int numSeeds) throws IOException {
+        if (!Files.exists(file)) {
+            System.out.println("Not updating " + file + ": file not found");
+            return;
+        }
+        String doc = Files.readString(file, StandardCharsets.UTF_8);
+        int begin = doc.indexOf(BENCHMARK_BEGIN);
+        int end = doc.indexOf(BENCHMARK_END);
+        if (begin < 0 || end < begin) {
+            System.out.println("Not updating " + file + ": no " + BENCHMARK_BEGIN + " / " + BENCHMARK_END + " markers");
+            return;
+        }
+        String section = BENCHMARK_BEGIN + "\n\n"
+                + "Generated by `./gradlew benchmark` on " + java.time.LocalDate.now() + ", " + numSeeds
+                + " seeds per configuration (" + Runtime.getRuntime().availableProcessors() + " cores).\n"
+                + renderTables(summaries, "####") + "\n";
+        Files.writeString(file, doc.substring(0, begin) + section + doc.substring(end), StandardCharsets.UTF_8);
+        System.out.println("Updated the benchmark tables in " + file);
+    }
+
+    /**
+     * Markdown tables, one section (with the given heading level) per sweep and backend
+     */
+    private static String renderTables(List<Summary> summaries, String heading) {
+        Map<String, String> titles = new LinkedHashMap<>();
+        titles.put("strong", "Strong scaling (" + STRONG_TOTAL_POPULATION + " individuals split over islands)");
+        titles.put("weak", "Weak scaling (" + BASE_POPULATION + " individuals per island)");
+        titles.put("migration", "Migration interval (" + FIXED_ISLANDS + " islands)");
+        titles.put("population", "Population size (" + FIXED_ISLANDS + " islands)");
+        titles.put("instance", "Instance size (" + FIXED_ISLANDS + " islands)");
+
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, String> sweep : titles.entrySet()) {
+            for (String backend : List.of("concurrent", "mpi")) {
+                List<Summary> group = summaries.stream()
+                        .filter(s -> s.config.sweep.equals(sweep.getKey()) && s.config.backend.equals(backend))
+                        .collect(Collectors.toList());
+                if (group.isEmpty()) continue;
+
+                boolean scaling = sweep.getKey().equals("strong") || sweep.getKey().equals("weak");
+                out.append('\n').append(heading).append(' ').append(sweep.getValue()).append(" - ").append(backend).append("\n\n");
+                out.append("| Islands | Population | Migration | Classes | Time (ms) | Gens to 0 | Success | Evals/s |")
+                        .append(scaling ? " Speedup | Efficiency |" : "").append('\n');
+                out.append("|---------|------------|-----------|---------|-----------|-----------|---------|---------|")
+                        .append(scaling ? "---------|------------|" : "").append('\n');
+
+                for (Summary s : group) {
+                    out.append(String.format(Locale.ROOT, "| %d | %d | %d | %d | %s | %s | %.0f%% | %s |",
+                            s.config.islands, s.config.populationSize * s.config.islands, s.config.migrationInterval,
+                            s.config.classes, cell("%,.0f", s.meanTimeMs), cell("%.0f", s.meanGenerationsToZero),
+                            s.successRate * 100, cell("%,.0f", s.meanEvaluationsPerSecond)));
+                    if (scaling) {
+                        out.append(' ').append(cell("%.1fx", s.speedup)).append(" | ")
+                                .append(cell("%.0f%%", s.efficiency * 100)).append(" |");
+                    }
+                    out.append('\n');
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Table cell, "-" when there is no value (e.g. no solved run)
+     */
+    private static String cell(String format, double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "-" : String.format(Locale.ROOT, format, value);
+    }
+
+    /**
+     * Parse --key=value arguments
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
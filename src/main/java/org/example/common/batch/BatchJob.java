@@ -0,0 +1,15 @@
+package org.example.common.batch;
+
+import lombok.Value;
+import org.example.common.model.TimetableData;
+
+/**
+ * One instance to solve in a batch, with its own budget
+ */
+@Value
+public class BatchJob {
+    String name;
+    TimetableData data;
+    int maxGenerations;
+    long maxMillis; // 0 = no time limit
+}
@@ -0,0 +1,52 @@
+package org.example.common.batch;
+
+import lombok.Value;
+import org.example.common.ga.Individual;
+
+/**
+ * Outcome of one batch job, streamed out as soon as the job finishes
+ */
+@Value
+public class BatchResult {
+    public static final String CSV_HEADER = "instance,fitness,lowerBound,stop,generations,evaluations,millis";
+
+    String name;
+    Individual best;   // null if the job failed before it had a population
+    int lowerBound;
+    String stopReason; // optimal, generations, time or error
+    int generations;
+    long evaluations;
+    long elapsedMillis;
+    Throwable error;   // set when stopReason is error
+
+    /**
+     * Result of a job that threw, so one bad instance does not abort the batch
+     */
+    public static BatchResult failed(String name, Individual best, int lowerBound, int generations, long evaluations,
+                                     long elapsedMillis, Throwable error) {
+        return new BatchResult(name, best, lowerBound, "error", generations, evaluations, elapsedMillis, error);
+    }
+
+    /**
+     * Same result, marked as failed (e.g. it could not be reported)
+     */
+    public BatchResult withError(Throwable error) {
+        return failed(name, best, lowerBound, generations, evaluations, elapsedMillis, error);
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    /**
+     * Fitness of the best timetable, -1 if there is none
+     */
+    public int getFitness() {
+        return best != null ? best.getFitness() : -1;
+    }
+
+    public String toCsv() {
+        return name + "," + getFitness() + "," + lowerBound + "," + stopReason + "," + generations + ","
+                + evaluations + "," + elapsedMillis;
+    }
+}
@@ -0,0 +1,268 @@
+package org.example.common.batch;
+
+import org.example.common.ga.Individual;
+import org.example.common.ga.Island;
+import org.example.common.model.TimetableData;
+import org.example.common.presolve.Presolve;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Solves many instances on one shared work-stealing pool
+ *
+ * Every instance runs the usual island model, but as short tasks instead of dedicated threads:
+ * one epoch = each island evolves migrationInterval generations (one fork-join task per island),
+ * then ring migration and a budget check, then the next epoch is forked as a new task. Between
+ * epochs an instance holds no thread, so idle workers steal island tasks of whichever instances
+ * are still running: cores freed by finished instances go to the unfinished ones.
+ *
+ * At most maxActive instances hold populations at once; the rest wait in a queue and are started
+ * as others finish, so memory stays bounded for batches of hundreds of instances.
+ */
+public class BatchSolver implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final int maxActive;
+    private final int islandsPerInstance;
+    private final int populationSize;
+    private final double mutationRate;
+    private final double crossoverRate;
+    private final int eliteCount;
+    private final int migrationInterval;
+    private final long seed;
+
+    private final Deque<Run> pending = new ArrayDeque<>();
+    private int active;
+
+    public BatchSolver(int parallelism, int maxActive, int islandsPerInstance, int populationSize, double mutationRate,
+                       double crossoverRate, int eliteCount, int migrationInterval, long seed) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxActive = maxActive;
+        this.islandsPerInstance = islandsPerInstance;
+        this.populationSize = populationSize;
+        this.mutationRate = mutationRate;
+        this.crossoverRate = crossoverRate;
+        this.eliteCount = eliteCount;
+        this.migrationInterval = migrationInterval;
+        this.seed = seed;
+    }
+
+    /**
+     * Queue a job; the future completes when its instance is solved, out of budget or failed
+     * (a failure is a result with stop reason "error", the future never completes exceptionally)
+     */
+    public CompletableFuture<BatchResult> submit(BatchJob job) {
+        Run run = new Run(job);
+        synchronized (this) {
+            pending.add(run);
+        }
+        startPending();
+        return run.result;
+    }
+
+    /**
+     * Solve all jobs, handing every result to onResult (one at a time) in completion order
+     * A job whose solving or reporting throws comes back as a failed result; the others are unaffected.
+     */
+    public List<BatchResult> solveAll(List<BatchJob> jobs, Consumer<BatchResult> onResult) {
+        List<CompletableFuture<BatchResult>> futures = new ArrayList<>(jobs.size());
+        for (BatchJob job : jobs) {
+            futures.add(submit(job).thenApply(result -> {
+                synchronized (onResult) {
+                    try {
+                        onResult.accept(result);
+                        return result;
+                    } catch (Throwable e) {
+                        return result.withError(e);
+                    }
+                }
+            }));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void startPending() {
+        List<Run> toStart = new ArrayList<>();
+        synchronized (this) {
+            while (active < maxActive && !pending.isEmpty()) {
+                active++;
+                toStart.add(pending.poll());
+            }
+        }
+        for (Run run : toStart) {
+            pool.execute(run::firstEpoch);
+        }
+    }
+
+    private void finished(Run run, BatchResult result) {
+        synchronized (this) {
+            if (run.done) {
+                return; // failed after it had already finished
+            }
+            run.done = true;
+            active--;
+        }
+        run.result.complete(result);
+        startPending();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * State of one instance while it is being solved
+     */
+    private final class Run {
+        final BatchJob job;
+        final CompletableFuture<BatchResult> result = new CompletableFuture<>();
+        List<Island> islands;
+        Presolve presolve;
+        long startNanos;
+        int generation;
+        boolean done; // guarded by BatchSolver.this
+
+        Run(BatchJob job) {
+            this.job = job;
+        }
+
+        void firstEpoch() {
+            try {
+                startNanos = System.nanoTime();
+                TimetableData data = job.getData();
+                presolve = Presolve.analyze(data);
+                // Random initial populations are built in parallel too
+                Island[] created = new Island[islandsPerInstance];
+                List<RecursiveAction> tasks = new ArrayList<>();
+                for (int i = 0; i < islandsPerInstance; i++) {
+                    int index = i;
+                    tasks.add(action(() -> created[index] = new Island(data, populationSize, mutationRate, crossoverRate,
+                            eliteCount, seed + index * 1000L)));
+                }
+                RecursiveAction.invokeAll(tasks);
+                islands = List.of(created);
+                epoch();
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Evolve every island for one migration interval (or until the lower bound), then
+         * either finish or fork the next epoch
+         */
+        void epoch() {
+            try {
+                int steps = Math.min(migrationInterval, job.getMaxGenerations() - generation);
+                List<RecursiveAction> tasks = new ArrayList<>(islands.size());
+                for (Island island : islands) {
+                    tasks.add(action(() -> {
+                        for (int g = 0; g < steps && !presolve.isOptimal(island.getBest().getFitness()) && !outOfTime(); g++) {
+                            island.evolve();
+                        }
+                    }));
+                }
+                RecursiveAction.invokeAll(tasks);
+                generation = islands.stream().mapToInt(Island::getGeneration).max().orElse(generation + steps);
+                migrate();
+
+                String stop = stopReason();
+                if (stop != null) {
+                    finished(this, new BatchResult(job.getName(), best().copy(), presolve.getLowerBound(), stop,
+                            generation, evaluations(), elapsedMillis(), null));
+                } else {
+                    pool.execute(this::epoch);
+                }
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private String stopReason() {
+            if (presolve.isOptimal(best().getFitness())) {
+                return "optimal";
+            }
+            if (generation >= job.getMaxGenerations()) {
+                return "generations";
+            }
+            if (outOfTime()) {
+                return "time";
+            }
+            return null;
+        }
+
+        private void migrate() {
+            List<List<Individual>> migrants = new ArrayList<>(islands.size());
+            long[] captureNanos = new long[islands.size()];
+            for (int i = 0; i < islands.size(); i++) {
+                long start = System.nanoTime();
+                migrants.add(islands.get(i).getMigrantCandidates());
+                captureNanos[i] = System.nanoTime() - start;
+            }
+            for (int i = 0; i < islands.size(); i++) {
+                long start = System.nanoTime();
+                Island destination = islands.get((i + 1) % islands.size());
+                boolean accepted = destination.receiveImmigrant(destination.selectImmigrant(migrants.get(i)));
+                destination.getMetrics().recordMigration(captureNanos[i] + System.nanoTime() - start, accepted);
+            }
+        }
+
+        private Individual best() {
+            Individual best = islands.get(0).getBest();
+            for (Island island : islands) {
+                if (island.getBest().getFitness() < best.getFitness()) {
+                    best = island.getBest();
+                }
+            }
+            return best;
+        }
+
+        private boolean outOfTime() {
+            return job.getMaxMillis() > 0 && elapsedMillis() >= job.getMaxMillis();
+        }
+
+        private long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+        private long evaluations() {
+            return islands.stream().mapToLong(Island::getEvaluations).sum();
+        }
+
+        /**
+         * Finish with an error result, keeping whatever the islands had found
+         */
+        private void fail(Throwable e) {
+            Individual best = null;
+            long evaluations = 0;
+            try {
+                if (islands != null) {
+                    best = best().copy();
+                    evaluations = evaluations();
+                }
+            } catch (Throwable ignored) {
+                // The state that failed may not be readable either
+            }
+            finished(this, BatchResult.failed(job.getName(), best, presolve != null ? presolve.getLowerBound() : 0,
+                    generation, evaluations, elapsedMillis(), e));
+        }
+    }
+
+    private static RecursiveAction action(Runnable body) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                body.run();
+            }
+        };
+    }
+}
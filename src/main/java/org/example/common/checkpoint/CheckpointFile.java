@@ -0,0 +1,137 @@
+package org.example.common.checkpoint;
+
+import org.example.common.ga.IslandState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary island snapshot, written and read through a memory-mapped FileChannel
+ *
+ * Layout (big endian):
+ *   int   magic "GACP"
+ *   short version
+ *   int   generation, instanceHash, populationSize, numGenes, rngLength
+ *   byte[rngLength] serialized Random
+ *   per individual: int fitness, char[numGenes] slots, char[numGenes] rooms
+ *   long  CRC32 of everything above
+ */
+public final class CheckpointFile {
+    private static final int MAGIC = 0x47414350; // "GACP"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 5 * 4;
+
+    private CheckpointFile() {
+    }
+
+    /**
+     * Write state to file. Goes through a temporary file and an atomic rename,
+     * so a crash mid-write leaves the previous checkpoint intact.
+     */
+    public static void write(Path file, IslandState state) throws IOException {
+        int pop = state.getPopulationSize();
+        int numGenes = state.getNumGenes();
+        byte[] rng = state.getRngState();
+        long size = HEADER_BYTES + rng.length + (long) pop * (4 + 4L * numGenes) + 8;
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = parent.resolve(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            buf.putInt(MAGIC);
+            buf.putShort(VERSION);
+            buf.putInt(state.getGeneration());
+            buf.putInt(state.getInstanceHash());
+            buf.putInt(pop);
+            buf.putInt(numGenes);
+            buf.putInt(rng.length);
+            buf.put(rng);
+
+            for (int i = 0; i < pop; i++) {
+                buf.putInt(state.getFitness()[i]);
+                for (int slot : state.getSlots()[i]) {
+                    buf.putChar(toChar(slot));
+                }
+                for (int room : state.getRooms()[i]) {
+                    buf.putChar(toChar(room));
+                }
+            }
+
+            buf.putLong(checksum(buf, (int) size - 8));
+            buf.force();
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read and validate a checkpoint
+     */
+    public static IslandState read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8) {
+                throw new IOException("Checkpoint too small: " + file);
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buf.getLong((int) size - 8) != checksum(buf, (int) size - 8)) {
+                throw new IOException("Checkpoint checksum mismatch: " + file);
+            }
+            if (buf.getInt() != MAGIC || buf.getShort() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " checkpoint: " + file);
+            }
+
+            int generation = buf.getInt();
+            int instanceHash = buf.getInt();
+            int pop = buf.getInt();
+            int numGenes = buf.getInt();
+            byte[] rng = new byte[buf.getInt()];
+            if (HEADER_BYTES + rng.length + (long) pop * (4 + 4L * numGenes) + 8 != size) {
+                throw new IOException("Checkpoint size does not match its header: " + file);
+            }
+            buf.get(rng);
+
+            int[][] slots = new int[pop][numGenes];
+            int[][] rooms = new int[pop][numGenes];
+            int[] fitness = new int[pop];
+            for (int i = 0; i < pop; i++) {
+                fitness[i] = buf.getInt();
+                for (int g = 0; g < numGenes; g++) {
+                    slots[i][g] = buf.getChar();
+                }
+                for (int g = 0; g < numGenes; g++) {
+                    rooms[i][g] = buf.getChar();
+                }
+            }
+
+            return new IslandState(generation, instanceHash, slots, rooms, fitness, rng);
+        }
+    }
+
+    private static char toChar(int value) {
+        if (value < 0 || value > Character.MAX_VALUE) {
+            throw new IllegalArgumentException("Value does not fit the checkpoint format: " + value);
+        }
+        return (char) value;
+    }
+
+    private static long checksum(ByteBuffer buf, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buf.duplicate();
+        view.position(0).limit(length);
+        crc.update(view);
+        return crc.getValue();
+    }
+}
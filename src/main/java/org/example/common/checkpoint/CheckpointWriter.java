@@ -0,0 +1,75 @@
+package org.example.common.checkpoint;
+
+import org.example.common.ga.Island;
+import org.example.common.ga.IslandState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes island checkpoints on a background thread
+ *
+ * The evolve thread only pays for Island.captureState() (array copies);
+ * encoding, the mmap write and fsync happen here.
+ */
+public class CheckpointWriter implements AutoCloseable {
+    private final Path directory;
+    private final ExecutorService executor;
+
+    public CheckpointWriter(Path directory) {
+        this.directory = directory;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "checkpoint-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * File of one shard: one per island (ConcurrentMain) or per MPI rank
+     */
+    public Path shardFile(String shardName) {
+        return directory.resolve(shardName + ".ckpt");
+    }
+
+    /**
+     * Capture the island now and write it asynchronously
+     */
+    public void checkpoint(Island island, String shardName) {
+        IslandState state = island.captureState();
+        Path file = shardFile(shardName);
+        executor.submit(() -> {
+            try {
+                CheckpointFile.write(file, state);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Checkpoint of " + shardName + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Restore the island from its shard if one exists
+     * Returns true if the island was restored
+     */
+    public boolean restore(Island island, String shardName) throws IOException {
+        Path file = shardFile(shardName);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        island.restoreState(CheckpointFile.read(file));
+        return true;
+    }
+
+    /**
+     * Wait for pending writes to finish
+     */
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+}
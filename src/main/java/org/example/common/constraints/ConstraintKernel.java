@@ -0,0 +1,269 @@
+package org.example.common.constraints;
+
+import org.example.common.model.Gene;
+import org.example.common.model.Room;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.util.*;
+
+/**
+ * All constraints of an instance, compiled into flat lookup tables and scored in one fused pass
+ *
+ * Tables built at load time:
+ * - class -> teacher, group, forbidden-slot bitmask (teacher unavailability)
+ * - class profile (required capacity + required features) x room -> penalty byte
+ *   (bit 0: too small, bit 1: missing feature). Classes with the same profile share a row,
+ *   so the table stays small even for tens of thousands of classes.
+ *
+ * evaluate() walks the genome once: per gene it bumps the teacher / group / room occupancy of its
+ * slot (counters reset lazily with an epoch stamp) and reads the two tables. Consecutive-hour limits
+ * are checked afterwards on per-group slot bitmasks, not on the genome. Adding a constraint adds
+ * table lookups to that pass, not another pass.
+ *
+ * Violation counts are the same as the original checks: every extra class of a teacher, group or
+ * room in a slot, every undersized room, plus one per new-constraint violation.
+ */
+public class ConstraintKernel {
+    static final int TOO_SMALL = 1;
+    static final int MISSING_FEATURE = 2;
+
+    final int numSlots;
+    final int hoursPerDay;
+    final int numTeachers;
+    final int numGroups;
+    final int numRooms;
+    final int[] classTeacher;
+    final int[] classGroup;
+    final int[] classProfile;
+    final long[] classForbiddenSlots;
+    final byte[] roomPenalty;      // [profile * numRooms + room], TOO_SMALL | MISSING_FEATURE bits
+    final int maxConsecutiveHours; // 0 = unlimited
+    final boolean featureRequirements; // some class needs a room feature
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * Per-thread occupancy counters, reused across evaluations
+     */
+    private static final class Scratch {
+        final int[] teacherCount, teacherEpoch;
+        final int[] groupCount, groupEpoch;
+        final int[] roomCount, roomEpoch;
+        final long[] groupMask;
+        final int[] groupMaskEpoch;
+        final int[] touchedGroups;
+        int epoch;
+
+        Scratch(ConstraintKernel k) {
+            teacherCount = new int[k.numSlots * k.numTeachers];
+            teacherEpoch = new int[teacherCount.length];
+            groupCount = new int[k.numSlots * k.numGroups];
+            groupEpoch = new int[groupCount.length];
+            roomCount = new int[k.numSlots * k.numRooms];
+            roomEpoch = new int[roomCount.length];
+            groupMask = new long[k.numGroups];
+            groupMaskEpoch = new int[k.numGroups];
+            touchedGroups = new int[k.numGroups];
+        }
+
+        int nextEpoch() {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(teacherEpoch, 0);
+                Arrays.fill(groupEpoch, 0);
+                Arrays.fill(roomEpoch, 0);
+                Arrays.fill(groupMaskEpoch, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+    }
+
+    /**
+     * Compile the built-in constraints plus the instance's ConstraintModel
+     */
+    public static ConstraintKernel compile(TimetableData data) {
+        return new ConstraintKernel(data, data.getConstraints());
+    }
+
+    private ConstraintKernel(TimetableData data, ConstraintModel model) {
+        this.numSlots = data.getTotalTimeSlots();
+        if (numSlots > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " time slots are supported, got " + numSlots);
+        }
+        this.hoursPerDay = data.getHoursPerDay();
+        this.numTeachers = data.getNumTeachers();
+        this.numGroups = data.getNumStudentGroups();
+        this.numRooms = data.getRooms().size();
+        this.maxConsecutiveHours = model.getMaxConsecutiveHours();
+
+        List<SchoolClass> classes = data.getClasses();
+        int n = classes.size();
+        this.classTeacher = new int[n];
+        this.classGroup = new int[n];
+        this.classProfile = new int[n];
+        this.classForbiddenSlots = new long[n];
+
+        // Profiles: distinct (required capacity, required features) pairs
+        Map<List<Long>, Integer> profiles = new HashMap<>();
+        List<long[]> profileValues = new ArrayList<>();
+        for (SchoolClass cls : classes) {
+            int id = cls.getId();
+            classTeacher[id] = cls.getTeacherId();
+            classGroup[id] = cls.getStudentGroup();
+            classForbiddenSlots[id] = model.getTeacherUnavailableSlots(cls.getTeacherId());
+
+            long capacity = cls.getRequiredCapacity();
+            long features = model.getSubjectFeatures(cls.getSubject());
+            classProfile[id] = profiles.computeIfAbsent(List.of(capacity, features), key -> {
+                profileValues.add(new long[]{capacity, features});
+                return profileValues.size() - 1;
+            });
+        }
+
+        this.featureRequirements = profileValues.stream().anyMatch(profile -> profile[1] != 0);
+        this.roomPenalty = new byte[profileValues.size() * numRooms];
+        for (int p = 0; p < profileValues.size(); p++) {
+            long capacity = profileValues.get(p)[0];
+            long features = profileValues.get(p)[1];
+            for (Room room : data.getRooms()) {
+                int penalty = 0;
+                if (capacity > room.getCapacity()) {
+                    penalty |= TOO_SMALL;
+                }
+                if ((features & ~model.getRoomFeatures(room.getId())) != 0) {
+                    penalty |= MISSING_FEATURE;
+                }
+                roomPenalty[p * numRooms + room.getId()] = (byte) penalty;
+            }
+        }
+
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(this));
+    }
+
+    /**
+     * Score a genome in one pass
+     * With roomConstraints = false, room conflicts, capacity and room features are skipped
+     * (a room decoder handles them)
+     */
+    public int evaluate(Gene[] genes, boolean roomConstraints) {
+        Scratch sc = scratch.get();
+        int epoch = sc.nextEpoch();
+        int touched = 0;
+        int violations = 0;
+
+        for (Gene gene : genes) {
+            int c = gene.getClassId();
+            int slot = gene.getTimeSlot().getAbsoluteSlot();
+            int room = gene.getRoomId();
+            int group = classGroup[c];
+
+            int t = slot * numTeachers + classTeacher[c];
+            if (sc.teacherEpoch[t] != epoch) {
+                sc.teacherEpoch[t] = epoch;
+                sc.teacherCount[t] = 1;
+            } else if (sc.teacherCount[t]++ > 0) {
+                violations++; // teacher already teaching in this slot
+            }
+
+            int g = slot * numGroups + group;
+            if (sc.groupEpoch[g] != epoch) {
+                sc.groupEpoch[g] = epoch;
+                sc.groupCount[g] = 1;
+            } else if (sc.groupCount[g]++ > 0) {
+                violations++; // group already has a class in this slot
+            }
+
+            if (roomConstraints) {
+                int r = slot * numRooms + room;
+                if (sc.roomEpoch[r] != epoch) {
+                    sc.roomEpoch[r] = epoch;
+                    sc.roomCount[r] = 1;
+                } else if (sc.roomCount[r]++ > 0) {
+                    violations++; // room already occupied in this slot
+                }
+                violations += Integer.bitCount(roomPenalty[classProfile[c] * numRooms + room]);
+            }
+
+            if ((classForbiddenSlots[c] >>> slot & 1L) != 0) {
+                violations++; // teacher unavailable
+            }
+
+            if (maxConsecutiveHours > 0) {
+                if (sc.groupMaskEpoch[group] != epoch) {
+                    sc.groupMaskEpoch[group] = epoch;
+                    sc.groupMask[group] = 0;
+                    sc.touchedGroups[touched++] = group;
+                }
+                sc.groupMask[group] |= 1L << slot;
+            }
+        }
+
+        for (int i = 0; i < touched; i++) {
+            violations += consecutivePenalty(sc.groupMask[sc.touchedGroups[i]]);
+        }
+
+        return violations;
+    }
+
+    /**
+     * Hours beyond the consecutive limit, summed over the days of one group's slot bitmask
+     */
+    int consecutivePenalty(long slotMask) {
+        int penalty = 0;
+        long dayBits = (1L << hoursPerDay) - 1;
+        for (int start = 0; start < numSlots; start += hoursPerDay) {
+            penalty += dayPenalty((slotMask >>> start) & dayBits);
+        }
+        return penalty;
+    }
+
+    int dayPenalty(long hours) {
+        int penalty = 0;
+        int run = 0;
+        while (hours != 0) {
+            if ((hours & 1L) != 0) {
+                if (++run > maxConsecutiveHours) {
+                    penalty++;
+                }
+            } else {
+                run = 0;
+            }
+            hours >>>= 1;
+        }
+        return penalty;
+    }
+
+    /**
+     * Incremental view of a genome for cheap single-move evaluation
+     */
+    public KernelState newState(Gene[] genes) {
+        return new KernelState(this, genes);
+    }
+
+    /**
+     * Room profile of a class (required capacity + required features); classes with the same
+     * profile are interchangeable as far as rooms are concerned
+     */
+    public int getClassProfile(int classId) {
+        return classProfile[classId];
+    }
+
+    /**
+     * Capacity + feature violations of a class with this profile in this room
+     */
+    public int roomPenalty(int profile, int room) {
+        return Integer.bitCount(roomPenalty[profile * numRooms + room]);
+    }
+
+    public boolean hasFeatureRequirements() {
+        return featureRequirements;
+    }
+
+    public int getNumRooms() {
+        return numRooms;
+    }
+
+    public int getNumSlots() {
+        return numSlots;
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.common.constraints;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Optional constraints on top of the four built-in ones (teacher, group, room, capacity)
+ *
+ * Read from a text file with one rule per line ('#' starts a comment):
+ *
+ *   teacher-unavailable <teacherId> <day> <fromHour> <toHour>   (hours 0-based, toHour exclusive)
+ *   room-feature        <roomId> <feature>
+ *   subject-requires    <subject> <feature>                      (e.g. Chemistry lab)
+ *   max-consecutive     <hours>                                  (per student group and day)
+ *
+ * Rules refer to teacher ids, room ids and subjects, which stay stable under ProblemDelta,
+ * so a model can be carried over to a changed instance. It is compiled into a ConstraintKernel.
+ */
+public class ConstraintModel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Map<Integer, Long> teacherUnavailable = new HashMap<>(); // teacher -> slot mask
+    private final List<String> features = new ArrayList<>();               // feature name -> bit index
+    private final Map<Integer, Long> roomFeatures = new HashMap<>();        // room -> feature mask
+    private final Map<String, Long> subjectFeatures = new HashMap<>();      // subject -> required feature mask
+    private int maxConsecutiveHours; // 0 = unlimited
+
+    /**
+     * Model without extra constraints (a new one each time: models are mutable, so none is shared)
+     */
+    public static ConstraintModel none() {
+        return new ConstraintModel();
+    }
+
+    /**
+     * Independent copy, to add rules without changing a model other instances use
+     */
+    public ConstraintModel copy() {
+        ConstraintModel copy = new ConstraintModel();
+        copy.teacherUnavailable.putAll(teacherUnavailable);
+        copy.features.addAll(features);
+        copy.roomFeatures.putAll(roomFeatures);
+        copy.subjectFeatures.putAll(subjectFeatures);
+        copy.maxConsecutiveHours = maxConsecutiveHours;
+        return copy;
+    }
+
+    public static ConstraintModel read(Path file, int daysPerWeek, int hoursPerDay) throws IOException {
+        ConstraintModel model = new ConstraintModel();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                line = (comment >= 0 ? line.substring(0, comment) : line).strip();
+                if (line.isEmpty()) continue;
+
+                String[] parts = line.split("\\s+");
+                try {
+                    model.addRule(parts, daysPerWeek, hoursPerDay);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file.getFileName() + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return model;
+    }
+
+    private void addRule(String[] parts, int daysPerWeek, int hoursPerDay) {
+        switch (parts[0]) {
+            case "teacher-unavailable":
+                expect(parts, 5);
+                teacherUnavailable(parseInt(parts[1]), parseInt(parts[2]), parseInt(parts[3]), parseInt(parts[4]),
+                        daysPerWeek, hoursPerDay);
+                break;
+            case "room-feature":
+                expect(parts, 3);
+                roomFeature(parseInt(parts[1]), parts[2]);
+                break;
+            case "subject-requires":
+                expect(parts, 3);
+                subjectRequires(parts[1], parts[2]);
+                break;
+            case "max-consecutive":
+                expect(parts, 2);
+                maxConsecutiveHours(parseInt(parts[1]));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown rule: " + parts[0]);
+        }
+    }
+
+    public ConstraintModel teacherUnavailable(int teacherId, int day, int fromHour, int toHour,
+                                              int daysPerWeek, int hoursPerDay) {
+        if (teacherId < 0) {
+            throw new IllegalArgumentException("Invalid teacher " + teacherId);
+        }
+        if (day < 0 || day >= daysPerWeek) {
+            throw new IllegalArgumentException("Invalid day " + day + " (0-" + (daysPerWeek - 1) + ")");
+        }
+        if (fromHour < 0 || fromHour >= toHour || toHour > hoursPerDay) {
+            throw new IllegalArgumentException("Invalid hour range " + fromHour + "-" + toHour);
+        }
+        long mask = 0;
+        for (int hour = fromHour; hour < toHour; hour++) {
+            int slot = day * hoursPerDay + hour;
+            if (slot >= Long.SIZE) {
+                throw new IllegalArgumentException("Slot out of range: day " + day + " hour " + hour);
+            }
+            mask |= 1L << slot;
+        }
+        teacherUnavailable.merge(teacherId, mask, (a, b) -> a | b);
+        return this;
+    }
+
+    public ConstraintModel roomFeature(int roomId, String feature) {
+        roomFeatures.merge(roomId, featureBit(feature), (a, b) -> a | b);
+        return this;
+    }
+
+    public ConstraintModel subjectRequires(String subject, String feature) {
+        subjectFeatures.merge(subject, featureBit(feature), (a, b) -> a | b);
+        return this;
+    }
+
+    public ConstraintModel maxConsecutiveHours(int hours) {
+        this.maxConsecutiveHours = hours;
+        return this;
+    }
+
+    private long featureBit(String feature) {
+        int index = features.indexOf(feature);
+        if (index < 0) {
+            if (features.size() == Long.SIZE) {
+                throw new IllegalArgumentException("At most " + Long.SIZE + " room features are supported");
+            }
+            features.add(feature);
+            index = features.size() - 1;
+        }
+        return 1L << index;
+    }
+
+    public long getTeacherUnavailableSlots(int teacherId) {
+        return teacherUnavailable.getOrDefault(teacherId, 0L);
+    }
+
+    public long getRoomFeatures(int roomId) {
+        return roomFeatures.getOrDefault(roomId, 0L);
+    }
+
+    public long getSubjectFeatures(String subject) {
+        return subjectFeatures.getOrDefault(subject, 0L);
+    }
+
+    public int getMaxConsecutiveHours() {
+        return maxConsecutiveHours;
+    }
+
+    public boolean isEmpty() {
+        return teacherUnavailable.isEmpty() && subjectFeatures.isEmpty() && maxConsecutiveHours == 0;
+    }
+
+    /**
+     * Content hash of the rules, part of TimetableData.fingerprint()
+     */
+    public int fingerprint() {
+        return Objects.hash(teacherUnavailable, features, roomFeatures, subjectFeatures, maxConsecutiveHours);
+    }
+
+    @Override
+    public String toString() {
+        return "ConstraintModel{unavailableTeachers=" + teacherUnavailable.size()
+                + ", features=" + features
+                + ", subjectsWithRequirements=" + subjectFeatures.size()
+                + ", maxConsecutiveHours=" + (maxConsecutiveHours == 0 ? "unlimited" : maxConsecutiveHours) + "}";
+    }
+
+    private static void expect(String[] parts, int count) {
+        if (parts.length != count) {
+            throw new IllegalArgumentException(parts[0] + " expects " + (count - 1) + " arguments");
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n < 0) {
+                throw new IllegalArgumentException("Negative value: " + value);
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+}
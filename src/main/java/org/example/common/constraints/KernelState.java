@@ -0,0 +1,191 @@
+package org.example.common.constraints;
+
+import org.example.common.model.Gene;
+import org.example.common.model.TimeSlot;
+
+/**
+ * Occupancy counters of one genome, kept up to date move by move (delta evaluation)
+ *
+ * Moving one class costs O(1) table updates (O(hoursPerDay) with a consecutive-hours limit)
+ * instead of a full evaluation, which is what local search needs.
+ * getViolations() always equals ConstraintKernel.evaluate(genes, true) for the current genome.
+ */
+public class KernelState {
+    private final ConstraintKernel k;
+    private final int[] slots;
+    private final int[] rooms;
+    private final int[] teacherCount;
+    private final int[] groupCount;
+    private final int[] roomCount;
+    private int violations;
+
+    KernelState(ConstraintKernel kernel, Gene[] genes) {
+        this.k = kernel;
+        this.slots = new int[genes.length];
+        this.rooms = new int[genes.length];
+        this.teacherCount = new int[k.numSlots * k.numTeachers];
+        this.groupCount = new int[k.numSlots * k.numGroups];
+        this.roomCount = new int[k.numSlots * k.numRooms];
+
+        for (Gene gene : genes) {
+            violations += add(gene.getClassId(), gene.getTimeSlot().getAbsoluteSlot(), gene.getRoomId());
+        }
+    }
+
+    public int getViolations() {
+        return violations;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    public int getSlot(int classId) {
+        return slots[classId];
+    }
+
+    public int getRoom(int classId) {
+        return rooms[classId];
+    }
+
+    /**
+     * Change in violations if classId moved to (slot, room); the state is left unchanged
+     */
+    public int deltaMove(int classId, int slot, int room) {
+        int oldSlot = slots[classId];
+        int oldRoom = rooms[classId];
+        if (oldSlot == slot && oldRoom == room) {
+            return 0;
+        }
+        int delta = remove(classId) + add(classId, slot, room);
+        remove(classId);
+        add(classId, oldSlot, oldRoom);
+        return delta;
+    }
+
+    /**
+     * Move classId to (slot, room)
+     */
+    public void move(int classId, int slot, int room) {
+        violations += remove(classId) + add(classId, slot, room);
+    }
+
+    /**
+     * Change in violations if the two classes swapped their (slot, room); the state is left unchanged
+     */
+    public int deltaSwap(int a, int b) {
+        return exchangeSlots(a, b, rooms[b], rooms[a], false);
+    }
+
+    public void swap(int a, int b) {
+        violations += exchangeSlots(a, b, rooms[b], rooms[a], true);
+    }
+
+    /**
+     * Change in violations if the two classes swapped their slots, each keeping its room;
+     * the state is left unchanged
+     */
+    public int deltaSwapSlots(int a, int b) {
+        return exchangeSlots(a, b, rooms[a], rooms[b], false);
+    }
+
+    public void swapSlots(int a, int b) {
+        violations += exchangeSlots(a, b, rooms[a], rooms[b], true);
+    }
+
+    /**
+     * Put a into b's slot with roomA and b into a's slot with roomB; returns the change in
+     * violations, undoing the exchange again unless keep is set
+     */
+    private int exchangeSlots(int a, int b, int roomA, int roomB, boolean keep) {
+        int slotA = slots[a], oldRoomA = rooms[a];
+        int slotB = slots[b], oldRoomB = rooms[b];
+        int delta = remove(a) + remove(b) + add(a, slotB, roomA) + add(b, slotA, roomB);
+        if (!keep) {
+            remove(a);
+            remove(b);
+            add(a, slotA, oldRoomA);
+            add(b, slotB, oldRoomB);
+        }
+        return delta;
+    }
+
+    /**
+     * Violations classId takes part in at its current (slot, room): clashes, room penalties and
+     * forbidden slot (consecutive-hour penalties belong to the group's day and are not counted)
+     */
+    public int conflicts(int classId) {
+        int slot = slots[classId];
+        int room = rooms[classId];
+        int count = Integer.bitCount(k.roomPenalty[k.classProfile[classId] * k.numRooms + room]);
+        if (teacherCount[slot * k.numTeachers + k.classTeacher[classId]] > 1) count++;
+        if (groupCount[slot * k.numGroups + k.classGroup[classId]] > 1) count++;
+        if (roomCount[slot * k.numRooms + room] > 1) count++;
+        if ((k.classForbiddenSlots[classId] >>> slot & 1L) != 0) count++;
+        return count;
+    }
+
+    /**
+     * Current genome as genes
+     */
+    public Gene[] toGenes() {
+        Gene[] genes = new Gene[slots.length];
+        for (int c = 0; c < slots.length; c++) {
+            genes[c] = new Gene(c, new TimeSlot(slots[c] / k.hoursPerDay, slots[c] % k.hoursPerDay), rooms[c]);
+        }
+        return genes;
+    }
+
+    private int add(int c, int slot, int room) {
+        int group = k.classGroup[c];
+        int before = k.maxConsecutiveHours > 0 ? groupDayPenalty(group, slot) : 0;
+        int delta = 0;
+
+        if (teacherCount[slot * k.numTeachers + k.classTeacher[c]]++ > 0) delta++;
+        if (groupCount[slot * k.numGroups + group]++ > 0) delta++;
+        if (roomCount[slot * k.numRooms + room]++ > 0) delta++;
+        delta += Integer.bitCount(k.roomPenalty[k.classProfile[c] * k.numRooms + room]);
+        if ((k.classForbiddenSlots[c] >>> slot & 1L) != 0) delta++;
+
+        if (k.maxConsecutiveHours > 0) {
+            delta += groupDayPenalty(group, slot) - before;
+        }
+
+        slots[c] = slot;
+        rooms[c] = room;
+        return delta;
+    }
+
+    private int remove(int c) {
+        int slot = slots[c];
+        int room = rooms[c];
+        int group = k.classGroup[c];
+        int before = k.maxConsecutiveHours > 0 ? groupDayPenalty(group, slot) : 0;
+        int delta = 0;
+
+        if (--teacherCount[slot * k.numTeachers + k.classTeacher[c]] > 0) delta--;
+        if (--groupCount[slot * k.numGroups + group] > 0) delta--;
+        if (--roomCount[slot * k.numRooms + room] > 0) delta--;
+        delta -= Integer.bitCount(k.roomPenalty[k.classProfile[c] * k.numRooms + room]);
+        if ((k.classForbiddenSlots[c] >>> slot & 1L) != 0) delta--;
+
+        if (k.maxConsecutiveHours > 0) {
+            delta += groupDayPenalty(group, slot) - before;
+        }
+        return delta;
+    }
+
+    /**
+     * Consecutive-hours penalty of a group on the day containing slot
+     */
+    private int groupDayPenalty(int group, int slot) {
+        int dayStart = slot - slot % k.hoursPerDay;
+        long hours = 0;
+        for (int h = 0; h < k.hoursPerDay; h++) {
+            if (groupCount[(dayStart + h) * k.numGroups + group] > 0) {
+                hours |= 1L << h;
+            }
+        }
+        return k.dayPenalty(hours);
+    }
+}
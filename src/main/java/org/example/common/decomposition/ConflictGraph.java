@@ -0,0 +1,215 @@
+package org.example.common.decomposition;
+
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Conflict graph of an instance: two classes are adjacent if they share a teacher or a student group
+ *
+ * Edges are not stored: every teacher and every group is a clique, kept as a list of its classes
+ * (compressed rows), so the graph is O(N) in memory even when a teacher has hundreds of classes.
+ * Adjacent classes can never share a slot without a violation; classes that are not adjacent
+ * only interact through rooms.
+ */
+public class ConflictGraph {
+    private static final int REFINEMENT_PASSES = 4;
+
+    private final int numClasses;
+    private final int numTeachers;
+    private final int numGroups;
+    private final int[] classTeacher;
+    private final int[] classGroup;
+    private final int[] teacherStart, teacherClasses; // classes of teacher t: teacherClasses[teacherStart[t] .. teacherStart[t + 1])
+    private final int[] groupStart, groupClasses;
+
+    public ConflictGraph(TimetableData data) {
+        List<SchoolClass> classes = data.getClasses();
+        this.numClasses = classes.size();
+        this.numTeachers = data.getNumTeachers();
+        this.numGroups = data.getNumStudentGroups();
+        this.classTeacher = new int[numClasses];
+        this.classGroup = new int[numClasses];
+        for (SchoolClass cls : classes) {
+            classTeacher[cls.getId()] = cls.getTeacherId();
+            classGroup[cls.getId()] = cls.getStudentGroup();
+        }
+
+        this.teacherStart = new int[numTeachers + 1];
+        this.teacherClasses = new int[numClasses];
+        buildRows(classTeacher, teacherStart, teacherClasses);
+        this.groupStart = new int[numGroups + 1];
+        this.groupClasses = new int[numClasses];
+        buildRows(classGroup, groupStart, groupClasses);
+    }
+
+    private static void buildRows(int[] key, int[] start, int[] members) {
+        for (int k : key) {
+            start[k + 1]++;
+        }
+        for (int i = 0; i + 1 < start.length; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] fill = Arrays.copyOf(start, start.length);
+        for (int c = 0; c < key.length; c++) {
+            members[fill[key[c]]++] = c;
+        }
+    }
+
+    /**
+     * Split the classes into clusters of at most maxClusterSize with few edges between them
+     *
+     * 1. Grow clusters breadth-first over whole teachers and groups, so each one keeps its
+     *    classes together as long as it fits
+     * 2. Refine: move a class to the cluster holding more of its teacher's and group's classes
+     *    while that cluster has room (a few label-propagation passes)
+     *
+     * Returns the cluster index of every class.
+     */
+    public int[] partition(int maxClusterSize) {
+        if (maxClusterSize < 1) {
+            throw new IllegalArgumentException("Cluster size must be positive, got " + maxClusterSize);
+        }
+
+        int[] clusterOf = new int[numClasses];
+        Arrays.fill(clusterOf, -1);
+        int numClusters = 0;
+        Deque<Integer> queue = new ArrayDeque<>();
+        BitSet teacherSeen = new BitSet(numTeachers);
+        BitSet groupSeen = new BitSet(numGroups);
+
+        for (int seed = 0; seed < numClasses; seed++) {
+            if (clusterOf[seed] >= 0) continue;
+
+            int cluster = numClusters++;
+            int size = 0;
+            teacherSeen.clear();
+            groupSeen.clear();
+            queue.clear();
+            queue.add(seed);
+
+            while (!queue.isEmpty() && size < maxClusterSize) {
+                int c = queue.poll();
+                if (clusterOf[c] >= 0) continue;
+                clusterOf[c] = cluster;
+                size++;
+
+                // Enqueue the rest of this class's teacher and group cliques (each clique once)
+                if (!teacherSeen.get(classTeacher[c])) {
+                    teacherSeen.set(classTeacher[c]);
+                    enqueueUnassigned(teacherClasses, teacherStart[classTeacher[c]], teacherStart[classTeacher[c] + 1], clusterOf, queue);
+                }
+                if (!groupSeen.get(classGroup[c])) {
+                    groupSeen.set(classGroup[c]);
+                    enqueueUnassigned(groupClasses, groupStart[classGroup[c]], groupStart[classGroup[c] + 1], clusterOf, queue);
+                }
+            }
+        }
+
+        refine(clusterOf, numClusters, maxClusterSize);
+        return clusterOf;
+    }
+
+    private static void enqueueUnassigned(int[] members, int from, int to, int[] clusterOf, Deque<Integer> queue) {
+        for (int i = from; i < to; i++) {
+            if (clusterOf[members[i]] < 0) {
+                queue.add(members[i]);
+            }
+        }
+    }
+
+    /**
+     * Greedy boundary refinement: edges from class c to cluster k = classes of c's teacher in k
+     * plus classes of c's group in k. Move c where that count is highest, if it beats staying.
+     */
+    private void refine(int[] clusterOf, int numClusters, int maxClusterSize) {
+        int[] size = new int[numClusters];
+        int[] teacherIn = new int[numTeachers * numClusters];
+        int[] groupIn = new int[numGroups * numClusters];
+        for (int c = 0; c < numClasses; c++) {
+            int k = clusterOf[c];
+            size[k]++;
+            teacherIn[classTeacher[c] * numClusters + k]++;
+            groupIn[classGroup[c] * numClusters + k]++;
+        }
+
+        for (int pass = 0; pass < REFINEMENT_PASSES; pass++) {
+            int moved = 0;
+            for (int c = 0; c < numClasses; c++) {
+                int t = classTeacher[c] * numClusters;
+                int g = classGroup[c] * numClusters;
+                int from = clusterOf[c];
+                int stay = teacherIn[t + from] + groupIn[g + from] - 2; // not counting c itself
+
+                // Only clusters of c's neighbours can reduce the cut
+                int best = from, bestEdges = stay;
+                for (int side = 0; side < 2; side++) {
+                    int[] members = side == 0 ? teacherClasses : groupClasses;
+                    int lo = side == 0 ? teacherStart[classTeacher[c]] : groupStart[classGroup[c]];
+                    int hi = side == 0 ? teacherStart[classTeacher[c] + 1] : groupStart[classGroup[c] + 1];
+                    for (int i = lo; i < hi; i++) {
+                        int k = clusterOf[members[i]];
+                        if (k == from || k == best || size[k] >= maxClusterSize) continue;
+                        int edges = teacherIn[t + k] + groupIn[g + k];
+                        if (edges > bestEdges) {
+                            best = k;
+                            bestEdges = edges;
+                        }
+                    }
+                }
+
+                if (best != from) {
+                    size[from]--;
+                    teacherIn[t + from]--;
+                    groupIn[g + from]--;
+                    size[best]++;
+                    teacherIn[t + best]++;
+                    groupIn[g + best]++;
+                    clusterOf[c] = best;
+                    moved++;
+                }
+            }
+            if (moved == 0) break;
+        }
+    }
+
+    /**
+     * Classes with a teacher or group neighbour in another cluster
+     */
+    public BitSet cutClasses(int[] clusterOf) {
+        int[] teacherCluster = singleCluster(teacherClasses, teacherStart, clusterOf);
+        int[] groupCluster = singleCluster(groupClasses, groupStart, clusterOf);
+        BitSet cut = new BitSet(numClasses);
+        for (int c = 0; c < numClasses; c++) {
+            if (teacherCluster[classTeacher[c]] < 0 || groupCluster[classGroup[c]] < 0) {
+                cut.set(c);
+            }
+        }
+        return cut;
+    }
+
+    /**
+     * Per clique: its cluster if all its classes are in the same one, else -1
+     */
+    private static int[] singleCluster(int[] members, int[] start, int[] clusterOf) {
+        int[] result = new int[start.length - 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = start[i] < start[i + 1] ? clusterOf[members[start[i]]] : 0;
+            for (int j = start[i] + 1; j < start[i + 1] && result[i] >= 0; j++) {
+                if (clusterOf[members[j]] != result[i]) {
+                    result[i] = -1;
+                }
+            }
+        }
+        return result;
+    }
+
+    public int getNumClasses() {
+        return numClasses;
+    }
+}
@@ -0,0 +1,261 @@
+package org.example.common.decomposition;
+
+import org.example.common.constraints.KernelState;
+import org.example.common.ga.Individual;
+import org.example.common.ga.Island;
+import org.example.common.ga.RoomMatcher;
+import org.example.common.model.Gene;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimeSlot;
+import org.example.common.model.TimetableData;
+import org.example.common.presolve.Presolve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decomposition mode for large instances
+ *
+ * 1. Partition the conflict graph (shared teacher / group) into loosely coupled clusters
+ * 2. Solve every cluster as an independent sub-problem (same rooms, only its classes), in parallel
+ * 3. Merge the cluster timetables and repair the boundaries:
+ *    - rooms: re-match every slot over all clusters (RoomMatcher), since clusters share rooms
+ *    - slots: move each cut class (teacher or group neighbour in another cluster) to its
+ *      cheapest (slot, room), evaluated incrementally with KernelState
+ * 4. Seed the islands of the full problem with the merged timetable and focus mutation on the
+ *    boundary for the first generations (coordinated phase)
+ *
+ * Sub-problems are small enough to stay cache resident, and there is one per cluster, so the
+ * available parallelism grows with the instance.
+ */
+public class Decomposition {
+    private static final double VARIANT_MUTATION_RATE = 0.3;
+    private static final int REPAIR_PASSES = 2;
+
+    private final TimetableData data;
+    private final int[][] clusters;       // global class ids of every cluster
+    private final BitSet cut;             // classes with a neighbour in another cluster
+    private final AtomicLong evaluations = new AtomicLong();
+
+    private Decomposition(TimetableData data, int[][] clusters, BitSet cut) {
+        this.data = data;
+        this.clusters = clusters;
+        this.cut = cut;
+    }
+
+    /**
+     * Partition the instance into clusters of at most maxClusterSize classes
+     */
+    public static Decomposition partition(TimetableData data, int maxClusterSize) {
+        ConflictGraph graph = new ConflictGraph(data);
+        int[] clusterOf = graph.partition(maxClusterSize);
+
+        int numClusters = 0;
+        for (int k : clusterOf) {
+            numClusters = Math.max(numClusters, k + 1);
+        }
+        List<List<Integer>> members = new ArrayList<>();
+        for (int k = 0; k < numClusters; k++) {
+            members.add(new ArrayList<>());
+        }
+        for (int c = 0; c < clusterOf.length; c++) {
+            members.get(clusterOf[c]).add(c);
+        }
+
+        // Refinement may empty a cluster; drop those
+        int[][] clusters = members.stream()
+                .filter(list -> !list.isEmpty())
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+        return new Decomposition(data, clusters, graph.cutClasses(clusterOf));
+    }
+
+    public TimetableData getData() {
+        return data;
+    }
+
+    public int getNumClusters() {
+        return clusters.length;
+    }
+
+    public int getClusterSize(int cluster) {
+        return clusters[cluster].length;
+    }
+
+    public int getCutSize() {
+        return cut.cardinality();
+    }
+
+    /**
+     * Evaluations spent on the sub-problems so far
+     */
+    public long getEvaluations() {
+        return evaluations.get();
+    }
+
+    /**
+     * The classes of one cluster as a stand-alone instance (renumbered from 0, same rooms,
+     * teachers, groups and extra constraints)
+     */
+    public TimetableData subProblem(int cluster) {
+        List<SchoolClass> classes = new ArrayList<>(clusters[cluster].length);
+        for (int id : clusters[cluster]) {
+            SchoolClass cls = data.getClass(id);
+            classes.add(new SchoolClass(classes.size(), cls.getSubject(), cls.getTeacherId(),
+                    cls.getStudentGroup(), cls.getRequiredCapacity()));
+        }
+        return new TimetableData(classes, data.getRooms(), data.getNumTeachers(), data.getNumStudentGroups())
+                .withConstraints(data.getConstraints());
+    }
+
+    /**
+     * Evolve one cluster on a private island until its lower bound or maxGenerations,
+     * and return its best timetable (local class ids)
+     */
+    public Gene[] solveCluster(int cluster, int populationSize, double mutationRate, double crossoverRate,
+                               int eliteCount, int maxGenerations, long seed, boolean roomDecoder) {
+        TimetableData sub = subProblem(cluster);
+        Presolve presolve = Presolve.analyze(sub);
+        Island island = new Island(sub, populationSize, mutationRate, crossoverRate, eliteCount, seed,
+                roomDecoder ? new RoomMatcher(sub) : null);
+
+        for (int generation = 0; generation < maxGenerations && !presolve.isOptimal(island.getBest().getFitness()); generation++) {
+            island.evolve();
+        }
+
+        evaluations.addAndGet(island.getEvaluations());
+        return island.getBest().getGenes().clone();
+    }
+
+    /**
+     * Combine cluster timetables (local class ids, indexed by cluster) into one full timetable
+     * and repair the room and slot interactions between clusters
+     */
+    public Gene[] merge(Gene[][] clusterSolutions) {
+        Gene[] genes = new Gene[data.getClasses().size()];
+        for (int k = 0; k < clusters.length; k++) {
+            for (int local = 0; local < clusters[k].length; local++) {
+                Gene gene = clusterSolutions[k][local];
+                int id = clusters[k][local];
+                genes[id] = new Gene(id, gene.getTimeSlot(), gene.getRoomId());
+            }
+        }
+
+        // Rooms: clusters were solved against all rooms, so re-match every slot over all classes.
+        // Only keep the matching if it is better than the rooms the clusters chose.
+        Individual asIs = new Individual(genes.clone(), data);
+        Individual rematched = new Individual(genes.clone(), data, new RoomMatcher(data));
+        if (rematched.getFitness() < asIs.getFitness()) {
+            genes = rematched.getGenes();
+        }
+
+        // Slots: move boundary classes to their cheapest placement against everything else
+        BitSet boundary = boundary(genes);
+        KernelState state = data.getKernel().newState(genes);
+        int numSlots = data.getTotalTimeSlots();
+        for (int pass = 0; pass < REPAIR_PASSES; pass++) {
+            int improved = 0;
+            for (int c = boundary.nextSetBit(0); c >= 0; c = boundary.nextSetBit(c + 1)) {
+                int bestSlot = state.getSlot(c), bestRoom = state.getRoom(c), bestDelta = 0;
+                for (int slot = 0; slot < numSlots; slot++) {
+                    for (int room : data.getValidRooms(c)) {
+                        int delta = state.deltaMove(c, slot, room);
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestSlot = slot;
+                            bestRoom = room;
+                        }
+                    }
+                }
+                if (bestDelta < 0) {
+                    state.move(c, bestSlot, bestRoom);
+                    improved++;
+                }
+            }
+            if (improved == 0) break;
+        }
+        return state.toGenes();
+    }
+
+    /**
+     * Cut classes plus classes sharing a (slot, room) with another class: the genes where
+     * cluster timetables can collide
+     */
+    public BitSet boundary(Gene[] genes) {
+        BitSet boundary = (BitSet) cut.clone();
+        int numRooms = data.getRooms().size();
+        int[] occupant = new int[data.getTotalTimeSlots() * numRooms];
+        Arrays.fill(occupant, -1);
+        for (Gene gene : genes) {
+            int cell = gene.getTimeSlot().getAbsoluteSlot() * numRooms + gene.getRoomId();
+            if (occupant[cell] >= 0) {
+                boundary.set(occupant[cell]);
+                boundary.set(gene.getClassId());
+            } else {
+                occupant[cell] = gene.getClassId();
+            }
+        }
+        return boundary;
+    }
+
+    /**
+     * Seed an island of the full problem with the merged timetable and count - 1 variants of it
+     * mutated at the boundary, and focus its mutation on the boundary for focusGenerations
+     */
+    public void seed(Island island, Gene[] merged, int count, long seed, int focusGenerations) {
+        Random rand = new Random(seed);
+        int[] boundary = boundary(merged).stream().toArray();
+        List<Individual> seeds = new ArrayList<>(count);
+        seeds.add(new Individual(merged.clone(), data));
+
+        for (int i = 1; i < count; i++) {
+            Individual variant = new Individual(merged.clone(), data);
+            variant.mutateGenes(boundary, VARIANT_MUTATION_RATE, rand);
+            seeds.add(variant);
+        }
+
+        island.seedPopulation(seeds);
+        if (boundary.length > 0) {
+            island.focusMutation(boundary, focusGenerations);
+        }
+    }
+
+    /**
+     * Slot and room of every class as one flat array (slot, room pairs), -1 where unknown;
+     * used to combine cluster results across MPI ranks with a MAX reduction
+     */
+    public int[] encode(Gene[][] clusterSolutions) {
+        int[] flat = new int[2 * data.getClasses().size()];
+        Arrays.fill(flat, -1);
+        for (int k = 0; k < clusters.length; k++) {
+            if (clusterSolutions[k] == null) continue;
+            for (int local = 0; local < clusters[k].length; local++) {
+                Gene gene = clusterSolutions[k][local];
+                flat[2 * clusters[k][local]] = gene.getTimeSlot().getAbsoluteSlot();
+                flat[2 * clusters[k][local] + 1] = gene.getRoomId();
+            }
+        }
+        return flat;
+    }
+
+    /**
+     * Inverse of encode, once every cluster has been filled in
+     */
+    public Gene[][] decode(int[] flat) {
+        int hoursPerDay = data.getHoursPerDay();
+        Gene[][] clusterSolutions = new Gene[clusters.length][];
+        for (int k = 0; k < clusters.length; k++) {
+            clusterSolutions[k] = new Gene[clusters[k].length];
+            for (int local = 0; local < clusters[k].length; local++) {
+                int slot = flat[2 * clusters[k][local]];
+                int room = flat[2 * clusters[k][local] + 1];
+                clusterSolutions[k][local] = new Gene(local, new TimeSlot(slot / hoursPerDay, slot % hoursPerDay), room);
+            }
+        }
+        return clusterSolutions;
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.common.export;
+
+import org.example.common.export.TimetableIndex.Rows;
+import org.example.common.export.TimetableIndex.View;
+import org.example.common.incremental.SolutionFile;
+import org.example.common.instance.InstanceLoader;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Streams a solved timetable as CSV, JSON or iCalendar, in one of four views (by slot, teacher,
+ * group or room), plus the console printout used by the mains
+ *
+ * Every writer walks a TimetableIndex once and writes each class as it goes, so memory is the
+ * index (a few int arrays) regardless of how large the document gets.
+ *
+ * As a program it exports a saved solution:
+ *   TimetableExport <instance> <solution.csv> <output.{csv,json,ics}> [slot|teacher|group|room]
+ */
+public final class TimetableExport {
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
+    private static final int FIRST_HOUR = 8; // slot hour 0 starts at 08:00
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private TimetableExport() {
+    }
+
+    /**
+     * Output format, chosen from the file extension
+     */
+    public enum Format {
+        CSV, JSON, ICS;
+
+        public static Format fromFileName(String name) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".csv")) return CSV;
+            if (lower.endsWith(".json")) return JSON;
+            if (lower.endsWith(".ics")) return ICS;
+            throw new IllegalArgumentException("Unknown export format (expected .csv, .json or .ics): " + name);
+        }
+    }
+
+    /**
+     * Export to a file, format taken from its extension
+     */
+    public static void write(Path file, TimetableIndex index, View view) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(out, Format.fromFileName(file.getFileName().toString()), index, view);
+        }
+    }
+
+    /**
+     * Export to each of a comma-separated list of files (e.g. the -Dga.export property)
+     */
+    public static void writeFiles(String files, TimetableIndex index, View view) throws IOException {
+        for (String file : files.split(",")) {
+            if (!file.isBlank()) {
+                write(Paths.get(file.trim()), index, view);
+            }
+        }
+    }
+
+    public static void write(Writer out, Format format, TimetableIndex index, View view) throws IOException {
+        switch (format) {
+            case CSV:
+                writeCsv(out, index, view);
+                break;
+            case JSON:
+                writeJson(out, index, view);
+                break;
+            default:
+                writeIcs(out, index, view, LocalDate.now().with(DayOfWeek.MONDAY));
+                break;
+        }
+    }
+
+    /**
+     * One line per class, ordered by the view (its key is one of the columns)
+     */
+    public static void writeCsv(Writer out, TimetableIndex index, View view) throws IOException {
+        TimetableData data = index.getData();
+        Rows rows = index.rows(view);
+        out.write("day,hour,class,subject,teacher,group,room\n");
+        for (int row = 0; row < rows.size(); row++) {
+            for (int p = rows.from(row); p < rows.to(row); p++) {
+                int c = rows.classAt(p);
+                SchoolClass cls = data.getClass(c);
+                int slot = index.getSlot(c);
+                out.write(DAYS[slot / data.getHoursPerDay()] + "," + (FIRST_HOUR + slot % data.getHoursPerDay())
+                        + "," + c + "," + csvField(cls.getSubject()) + "," + cls.getTeacherId() + ","
+                        + cls.getStudentGroup() + "," + index.getRoom(c) + "\n");
+            }
+        }
+    }
+
+    /**
+     * {"view": ..., "rows": [{"<view>": k, "classes": [{...}, ...]}, ...]}, empty rows omitted
+     */
+    public static void writeJson(Writer out, TimetableIndex index, View view) throws IOException {
+        TimetableData data = index.getData();
+        Rows rows = index.rows(view);
+        out.write("{\"view\":\"" + view.label() + "\",\"rows\":[");
+        boolean firstRow = true;
+        for (int row = 0; row < rows.size(); row++) {
+            if (rows.from(row) == rows.to(row)) continue;
+            out.write(firstRow ? "\n" : ",\n");
+            firstRow = false;
+            out.write("{\"" + view.label() + "\":" + row + ",\"classes\":[");
+            for (int p = rows.from(row); p < rows.to(row); p++) {
+                int c = rows.classAt(p);
+                SchoolClass cls = data.getClass(c);
+                int slot = index.getSlot(c);
+                if (p > rows.from(row)) out.write(",");
+                out.write("{\"class\":" + c + ",\"subject\":\"" + jsonString(cls.getSubject())
+                        + "\",\"day\":\"" + DAYS[slot / data.getHoursPerDay()] + "\",\"hour\":" + (FIRST_HOUR + slot % data.getHoursPerDay())
+                        + ",\"teacher\":" + cls.getTeacherId() + ",\"group\":" + cls.getStudentGroup()
+                        + ",\"room\":" + index.getRoom(c) + "}");
+            }
+            out.write("]}");
+        }
+        out.write("\n]}\n");
+    }
+
+    /**
+     * One VCALENDAR per row (an iCalendar stream), every class a weekly event from weekStart's week
+     * The SLOT view is written as a single calendar with all classes
+     */
+    public static void writeIcs(Writer out, TimetableIndex index, View view, LocalDate weekStart) throws IOException {
+        TimetableData data = index.getData();
+        Rows rows = index.rows(view);
+        LocalDate monday = weekStart.with(DayOfWeek.MONDAY);
+        String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(ICS_DATE_TIME) + "Z";
+        boolean single = view == View.SLOT;
+
+        if (single) {
+            beginCalendar(out, "Timetable");
+        }
+        for (int row = 0; row < rows.size(); row++) {
+            if (rows.from(row) == rows.to(row)) continue;
+            if (!single) {
+                beginCalendar(out, capitalize(view.label()) + " " + row);
+            }
+            for (int p = rows.from(row); p < rows.to(row); p++) {
+                int c = rows.classAt(p);
+                SchoolClass cls = data.getClass(c);
+                int slot = index.getSlot(c);
+                String start = monday.plusDays(slot / data.getHoursPerDay())
+                        .atTime(FIRST_HOUR + slot % data.getHoursPerDay(), 0)
+                        .format(ICS_DATE_TIME);
+                String end = monday.plusDays(slot / data.getHoursPerDay())
+                        .atTime(FIRST_HOUR + slot % data.getHoursPerDay() + 1, 0)
+                        .format(ICS_DATE_TIME);
+                out.write("BEGIN:VEVENT\r\n");
+                out.write("UID:class-" + c + (single ? "" : "-" + view.label() + "-" + row) + "@timetable-ga\r\n");
+                out.write("DTSTAMP:" + stamp + "\r\n");
+                out.write("DTSTART:" + start + "\r\n");
+                out.write("DTEND:" + end + "\r\n");
+                out.write("RRULE:FREQ=WEEKLY\r\n");
+                out.write("SUMMARY:" + icsText(cls.getSubject()) + "\r\n");
+                out.write("LOCATION:Room " + index.getRoom(c) + "\r\n");
+                out.write("DESCRIPTION:Class " + c + "\\, teacher " + cls.getTeacherId() + "\\, group " + cls.getStudentGroup() + "\r\n");
+                out.write("END:VEVENT\r\n");
+            }
+            if (!single) {
+                out.write("END:VCALENDAR\r\n");
+            }
+        }
+        if (single) {
+            out.write("END:VCALENDAR\r\n");
+        }
+    }
+
+    private static void beginCalendar(Writer out, String name) throws IOException {
+        out.write("BEGIN:VCALENDAR\r\n");
+        out.write("VERSION:2.0\r\n");
+        out.write("PRODID:-//org.example//timetable-ga//EN\r\n");
+        out.write("X-WR-CALNAME:" + icsText(name) + "\r\n");
+    }
+
+    /**
+     * Console printout of the whole week, one line per slot
+     */
+    public static void print(PrintStream out, TimetableIndex index) {
+        TimetableData data = index.getData();
+        Rows rows = index.rows(View.SLOT);
+        StringBuilder text = new StringBuilder();
+        text.append("\nTIMETABLE:\n").append("-".repeat(70)).append('\n');
+
+        for (int day = 0; day < data.getDaysPerWeek(); day++) {
+            text.append('\n').append(DAYS[day].toUpperCase(Locale.ROOT)).append('\n');
+            for (int hour = 0; hour < data.getHoursPerDay(); hour++) {
+                int slot = day * data.getHoursPerDay() + hour;
+                text.append(String.format("  %2d:00 - ", FIRST_HOUR + hour));
+                if (rows.from(slot) == rows.to(slot)) {
+                    text.append('-');
+                }
+                for (int p = rows.from(slot); p < rows.to(slot); p++) {
+                    int c = rows.classAt(p);
+                    SchoolClass cls = data.getClass(c);
+                    text.append('[').append(cls.getSubject()).append(", T").append(cls.getTeacherId())
+                            .append(", G").append(cls.getStudentGroup()).append(", R").append(index.getRoom(c)).append("] ");
+                }
+                text.append('\n');
+            }
+        }
+        out.print(text);
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char ch : value.toCharArray()) {
+            switch (ch) {
+                case '"': escaped.append("\\\""); break;
+                case '\\': escaped.append("\\\\"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                case '\t': escaped.append("\\t"); break;
+                default:
+                    if (ch < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        escaped.append(ch);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String icsText(String value) {
+        return value.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("Usage: TimetableExport <instance> <solution.csv> <output.{csv,json,ics}> [slot|teacher|group|room]");
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        TimetableData data = InstanceLoader.load(Paths.get(args[0]));
+        TimetableIndex index = new TimetableIndex(SolutionFile.read(Paths.get(args[1]), data), data);
+        View view = args.length == 4 ? View.valueOf(args[3].toUpperCase(Locale.ROOT)) : View.SLOT;
+        write(Paths.get(args[2]), index, view);
+        System.out.println("Exported " + data.getClasses().size() + " classes (" + view.label() + " view) to "
+                + args[2] + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
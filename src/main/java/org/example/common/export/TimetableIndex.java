@@ -0,0 +1,144 @@
+package org.example.common.export;
+
+import org.example.common.model.Gene;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.util.Locale;
+
+/**
+ * A solved timetable indexed for export: class ids ordered by slot, and by teacher, group or room
+ * (each ordered by slot)
+ *
+ * Built with counting sorts in O(classes + slots + keys), as flat int arrays: for a view, the
+ * classes of key k are order[start[k] .. start[k + 1]).
+ */
+public class TimetableIndex {
+    private final TimetableData data;
+    private final int[] slotOf;
+    private final int[] roomOf;
+    private final int[] bySlot;
+    private final int[] slotStart;
+
+    public TimetableIndex(Gene[] genes, TimetableData data) {
+        this.data = data;
+        int n = genes.length;
+        this.slotOf = new int[n];
+        this.roomOf = new int[n];
+        int[] slotKeys = new int[n];
+        for (Gene gene : genes) {
+            int c = gene.getClassId();
+            slotOf[c] = gene.getTimeSlot().getAbsoluteSlot();
+            roomOf[c] = gene.getRoomId();
+            slotKeys[c] = slotOf[c];
+        }
+
+        int[] identity = new int[n];
+        for (int c = 0; c < n; c++) {
+            identity[c] = c;
+        }
+        this.slotStart = new int[data.getTotalTimeSlots() + 1];
+        this.bySlot = countingSort(identity, slotKeys, slotStart);
+    }
+
+    /**
+     * Stable counting sort of ids by key[id]; fills start (size = keys + 1) with the row offsets
+     */
+    private static int[] countingSort(int[] ids, int[] key, int[] start) {
+        for (int id : ids) {
+            start[key[id] + 1]++;
+        }
+        for (int k = 0; k + 1 < start.length; k++) {
+            start[k + 1] += start[k];
+        }
+        int[] fill = start.clone();
+        int[] sorted = new int[ids.length];
+        for (int id : ids) {
+            sorted[fill[key[id]]++] = id;
+        }
+        return sorted;
+    }
+
+    /**
+     * Rows of the given view: row k holds the classes of key k (teacher, group, room or slot),
+     * each row ordered by slot
+     */
+    public Rows rows(View view) {
+        if (view == View.SLOT) {
+            return new Rows(bySlot, slotStart);
+        }
+
+        int n = slotOf.length;
+        int[] key = new int[n];
+        int numKeys;
+        switch (view) {
+            case TEACHER:
+                numKeys = data.getNumTeachers();
+                for (SchoolClass cls : data.getClasses()) key[cls.getId()] = cls.getTeacherId();
+                break;
+            case GROUP:
+                numKeys = data.getNumStudentGroups();
+                for (SchoolClass cls : data.getClasses()) key[cls.getId()] = cls.getStudentGroup();
+                break;
+            default:
+                numKeys = data.getRooms().size();
+                System.arraycopy(roomOf, 0, key, 0, n);
+                break;
+        }
+        // Distributing the slot order by key keeps every row ordered by slot
+        int[] start = new int[numKeys + 1];
+        return new Rows(countingSort(bySlot, key, start), start);
+    }
+
+    public int getSlot(int classId) {
+        return slotOf[classId];
+    }
+
+    public int getRoom(int classId) {
+        return roomOf[classId];
+    }
+
+    public TimetableData getData() {
+        return data;
+    }
+
+    /**
+     * What the rows of an export are keyed by
+     */
+    public enum View {
+        SLOT, TEACHER, GROUP, ROOM;
+
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Compressed rows: classes of row k are order[start[k] .. start[k + 1])
+     */
+    public static final class Rows {
+        private final int[] order;
+        private final int[] start;
+
+        Rows(int[] order, int[] start) {
+            this.order = order;
+            this.start = start;
+        }
+
+        public int size() {
+            return start.length - 1;
+        }
+
+        public int from(int row) {
+            return start[row];
+        }
+
+        public int to(int row) {
+            return start[row + 1];
+        }
+
+        public int classAt(int position) {
+            return order[position];
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.common.ga;
+
+import lombok.Value;
+
+/**
+ * Settings of an island's diversity control (see Island.setDiversityPolicy)
+ *
+ * - Children and immigrants identical to an individual already in the population are rejected
+ * - Diversity (mean normalized Hamming distance of samplePairs random pairs) is measured every
+ *   generation; below threshold the worst restartFraction of the population is reinitialised
+ * - Migration sends the best migrantCandidates individuals and the destination keeps the one
+ *   farthest from its own population
+ */
+@Value
+public class DiversityPolicy {
+    double threshold;
+    double restartFraction;
+    int samplePairs;
+    int migrantCandidates;
+}
@@ -17,19 +17,54 @@ public class Individual implements Serializable, Comparable<Individual> {
     private final Gene[] genes;
     private int fitness = -1; // -1 means not calculated yet
     private final TimetableData data;
+    @Getter
+    private final transient RoomMatcher roomMatcher; // null: rooms are part of the genome, else decoded from slots
 
     /**
      * Create individual with given genes
      */
     public Individual(Gene[] genes, TimetableData data) {
+        this(genes, data, null);
+    }
+
+    /**
+     * Create individual with an already known fitness (e.g. restored from a checkpoint)
+     */
+    public Individual(Gene[] genes, TimetableData data, RoomMatcher roomMatcher, int fitness) {
+        this(genes, data, roomMatcher);
+        this.fitness = fitness;
+    }
+
+    /**
+     * Create individual whose rooms are decoded by the given matcher (slot-only genome)
+     */
+    public Individual(Gene[] genes, TimetableData data, RoomMatcher roomMatcher) {
         this.genes = genes;
         this.data = data;
+        this.roomMatcher = roomMatcher;
+    }
+
+    /**
+     * Same genes, evaluated in the given room mode (keeps fitness if the mode does not change)
+     */
+    public Individual withRoomMatcher(RoomMatcher matcher) {
+        if (matcher == roomMatcher) {
+            return this;
+        }
+        return new Individual(genes.clone(), data, matcher);
     }
 
     /**
      * Create random individual
      */
     public static Individual createRandom(TimetableData data, Random rand) {
+        return createRandom(data, rand, null);
+    }
+
+    /**
+     * Create random individual, with rooms decoded by the matcher if not null
+     */
+    public static Individual createRandom(TimetableData data, Random rand, RoomMatcher roomMatcher) {
         List<SchoolClass> classes = data.getClasses();
         Gene[] genes = new Gene[classes.size()];
 
@@ -39,13 +74,14 @@ public class Individual implements Serializable, Comparable<Individual> {
             int hour = rand.nextInt(data.getHoursPerDay());
             TimeSlot timeSlot = new TimeSlot(day, hour);
 
-            // Random room
-            int roomId = rand.nextInt(data.getRooms().size());
+            // Random room from the class's room domain
+            int[] validRooms = data.getValidRooms(i);
+            int roomId = validRooms[rand.nextInt(validRooms.length)];
 
             genes[i] = new Gene(i, timeSlot, roomId);
         }
 
-        return new Individual(genes, data);
+        return new Individual(genes, data, roomMatcher);
     }
 
     /**
@@ -53,96 +89,54 @@ public class Individual implements Serializable, Comparable<Individual> {
      * Fitness = number of constraint violations
      */
     public int calculateFitness() {
-        int violations = 0;
-
-        // Constraint 1: Teacher conflict (teacher in two places at same time)
-        violations += countTeacherConflicts();
-
-        // Constraint 2: Student group conflict (group in two places at same time)
-        violations += countStudentConflicts();
-
-        // Constraint 3: Room conflict (two classes in same room at same time)
-        violations += countRoomConflicts();
+        if (roomMatcher != null) {
+            return calculateDecodedFitness();
+        }
 
-        // Constraint 4: Room capacity (class size > room capacity)
-        violations += countCapacityViolations();
+        // Teacher, group and room conflicts, capacity and the extra constraints, in one pass
+        int violations = data.getKernel().evaluate(genes, true);
 
         this.fitness = violations;
         return violations;
     }
 
-    private int countTeacherConflicts() {
-        int conflicts = 0;
-        // For each timeslot, check if any teacher teaches multiple classes
-        Map<Integer, Set<Integer>> teacherAtTime = new HashMap<>();
+    /**
+     * Slot-only mode: rooms are not searched, they are the matching of each slot.
+     * Room, capacity and feature violations come out of the matching; the genes are updated with the rooms.
+     * Time-based constraints still come from the kernel.
+     */
+    private int calculateDecodedFitness() {
+        int numSlots = data.getTotalTimeSlots();
 
+        // Counting sort of class ids by slot
+        int[] slotStart = new int[numSlots + 1];
         for (Gene gene : genes) {
-            SchoolClass cls = data.getClass(gene.getClassId());
-            int timeSlotId = gene.getTimeSlot().getAbsoluteSlot();
-
-            teacherAtTime.putIfAbsent(timeSlotId, new HashSet<>());
-
-            if (teacherAtTime.get(timeSlotId).contains(cls.getTeacherId())) {
-                conflicts++; // Teacher already teaching at this time
-            }
-            teacherAtTime.get(timeSlotId).add(cls.getTeacherId());
+            slotStart[gene.getTimeSlot().getAbsoluteSlot() + 1]++;
         }
-
-        return conflicts;
-    }
-
-    private int countStudentConflicts() {
-        int conflicts = 0;
-        // For each timeslot, check if any student group has multiple classes
-        Map<Integer, Set<Integer>> groupAtTime = new HashMap<>();
-
-        for (Gene gene : genes) {
-            SchoolClass cls = data.getClass(gene.getClassId());
-            int timeSlotId = gene.getTimeSlot().getAbsoluteSlot();
-
-            groupAtTime.putIfAbsent(timeSlotId, new HashSet<>());
-
-            if (groupAtTime.get(timeSlotId).contains(cls.getStudentGroup())) {
-                conflicts++; // Group already has class at this time
-            }
-            groupAtTime.get(timeSlotId).add(cls.getStudentGroup());
+        for (int s = 0; s < numSlots; s++) {
+            slotStart[s + 1] += slotStart[s];
         }
-
-        return conflicts;
-    }
-
-    private int countRoomConflicts() {
-        int conflicts = 0;
-        // For each timeslot, check if any room is used by multiple classes
-        Map<Integer, Set<Integer>> roomAtTime = new HashMap<>();
-
-        for (Gene gene : genes) {
-            int timeSlotId = gene.getTimeSlot().getAbsoluteSlot();
-            int roomId = gene.getRoomId();
-
-            roomAtTime.putIfAbsent(timeSlotId, new HashSet<>());
-
-            if (roomAtTime.get(timeSlotId).contains(roomId)) {
-                conflicts++; // Room already occupied at this time
-            }
-            roomAtTime.get(timeSlotId).add(roomId);
+        int[] classIds = new int[genes.length];
+        int[] fill = slotStart.clone();
+        for (int i = 0; i < genes.length; i++) {
+            classIds[fill[genes[i].getTimeSlot().getAbsoluteSlot()]++] = i;
         }
 
-        return conflicts;
-    }
-
-    private int countCapacityViolations() {
         int violations = 0;
-
-        for (Gene gene : genes) {
-            SchoolClass cls = data.getClass(gene.getClassId());
-            Room room = data.getRoom(gene.getRoomId());
-
-            if (cls.getRequiredCapacity() > room.getCapacity()) {
-                violations++; // Class too big for room
+        int[] rooms = new int[genes.length];
+        for (int s = 0; s < numSlots; s++) {
+            violations += roomMatcher.assign(classIds, slotStart[s], slotStart[s + 1], rooms);
+        }
+        for (int k = 0; k < classIds.length; k++) {
+            int i = classIds[k];
+            if (genes[i].getRoomId() != rooms[k]) {
+                genes[i] = new Gene(genes[i].getClassId(), genes[i].getTimeSlot(), rooms[k]);
             }
         }
 
+        violations += data.getKernel().evaluate(genes, false);
+
+        this.fitness = violations;
         return violations;
     }
 
@@ -157,7 +151,7 @@ public class Individual implements Serializable, Comparable<Individual> {
             childGenes[i] = i < crossoverPoint ? this.genes[i] : other.genes[i];
         }
 
-        return new Individual(childGenes, data);
+        return new Individual(childGenes, data, roomMatcher);
     }
 
     /**
@@ -166,21 +160,72 @@ public class Individual implements Serializable, Comparable<Individual> {
     public void mutate(double mutationRate, Random rand) {
         for (int i = 0; i < genes.length; i++) {
             if (rand.nextDouble() < mutationRate) {
-                // Mutate this gene: change timeslot or room
-                if (rand.nextBoolean()) {
-                    // Change timeslot
-                    int day = rand.nextInt(data.getDaysPerWeek());
-                    int hour = rand.nextInt(data.getHoursPerDay());
-                    TimeSlot newTimeSlot = new TimeSlot(day, hour);
-                    genes[i] = new Gene(genes[i].getClassId(), newTimeSlot, genes[i].getRoomId());
-                } else {
-                    // Change room
-                    int newRoom = rand.nextInt(data.getRooms().size());
-                    genes[i] = new Gene(genes[i].getClassId(), genes[i].getTimeSlot(), newRoom);
-                }
-                this.fitness = -1; // Invalidate fitness
+                mutateGene(i, rand);
+            }
+        }
+    }
+
+    /**
+     * Mutate only the given genes (e.g. the ones touched by a problem change)
+     */
+    public void mutateGenes(int[] geneIndexes, double mutationRate, Random rand) {
+        for (int i : geneIndexes) {
+            if (rand.nextDouble() < mutationRate) {
+                mutateGene(i, rand);
+            }
+        }
+    }
+
+    /**
+     * Change the timeslot or the room of one gene (only the timeslot in slot-only mode)
+     */
+    private void mutateGene(int i, Random rand) {
+        if (roomMatcher != null || rand.nextBoolean()) {
+            // Change timeslot
+            int day = rand.nextInt(data.getDaysPerWeek());
+            int hour = rand.nextInt(data.getHoursPerDay());
+            TimeSlot newTimeSlot = new TimeSlot(day, hour);
+            genes[i] = new Gene(genes[i].getClassId(), newTimeSlot, genes[i].getRoomId());
+        } else {
+            // Change room (within the class's room domain)
+            int[] validRooms = data.getValidRooms(genes[i].getClassId());
+            int newRoom = validRooms[rand.nextInt(validRooms.length)];
+            genes[i] = new Gene(genes[i].getClassId(), genes[i].getTimeSlot(), newRoom);
+        }
+        this.fitness = -1; // Invalidate fitness
+    }
+
+    /**
+     * 64-bit hash of the genome, equal for identical timetables
+     * With a room decoder only the slots count (rooms follow from them)
+     */
+    public long genomeHash() {
+        long hash = 0;
+        for (Gene gene : genes) {
+            long value = roomMatcher != null
+                    ? gene.getTimeSlot().getAbsoluteSlot()
+                    : (long) gene.getTimeSlot().getAbsoluteSlot() << 32 | gene.getRoomId();
+            hash = (hash + value) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+
+    /**
+     * Fraction of genes placed differently (slot or room) in the two individuals
+     */
+    public double distance(Individual other) {
+        if (genes.length == 0) {
+            return 0;
+        }
+        int different = 0;
+        for (int i = 0; i < genes.length; i++) {
+            if (genes[i].getRoomId() != other.genes[i].getRoomId()
+                    || genes[i].getTimeSlot().getAbsoluteSlot() != other.genes[i].getTimeSlot().getAbsoluteSlot()) {
+                different++;
             }
         }
+        return (double) different / genes.length;
     }
 
     public int getFitness() {
@@ -210,7 +255,7 @@ public class Individual implements Serializable, Comparable<Individual> {
     public Individual copy() {
         Gene[] newGenes = new Gene[genes.length];
         System.arraycopy(genes, 0, newGenes, 0, genes.length);
-        Individual copy = new Individual(newGenes, data);
+        Individual copy = new Individual(newGenes, data, roomMatcher);
         copy.fitness = this.fitness;
         return copy;
     }
@@ -1,28 +1,56 @@
 package org.example.common.ga;
 
 import lombok.Getter;
+import org.example.common.metrics.IslandMetrics;
+import org.example.common.model.Gene;
+import org.example.common.model.TimeSlot;
 import org.example.common.model.TimetableData;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * An island maintains a population and evolves it using genetic operators
  * Each MPI rank runs one island independently
  */
 public class Island {
+    private static final int DIVERSITY_SAMPLE_PAIRS = 8;
+
     @Getter
     private List<Individual> population;
     private final TimetableData data;
-    private final Random rand;
+    private Random rand;
     private final int populationSize;
     private final double mutationRate;
     private final double crossoverRate;
     private final int eliteCount; // Number of best individuals to preserve
+    private final RoomMatcher roomMatcher; // Slot-only genome with decoded rooms, or null
+    private int generation; // Generations evolved so far (restored from checkpoints)
+    private int[] mutationFocus; // If set, only these genes are mutated until focusUntilGeneration
+    private int focusUntilGeneration;
+    private DiversityPolicy diversityPolicy; // Duplicate rejection, restarts, distant immigrants; null = off
+    private double lastDiversity = 1;
+    @Getter
+    private final IslandMetrics metrics = new IslandMetrics();
+    // A lock instead of synchronized methods: waiting on it does not pin a virtual thread to its carrier
+    private final ReentrantLock lock = new ReentrantLock();
 
     public Island(TimetableData data, int populationSize, double mutationRate, double crossoverRate, int eliteCount, long seed) {
+        this(data, populationSize, mutationRate, crossoverRate, eliteCount, seed, null);
+    }
+
+    /**
+     * Island whose individuals only search time slots; rooms are assigned by the matcher
+     */
+    public Island(TimetableData data, int populationSize, double mutationRate, double crossoverRate, int eliteCount, long seed,
+                  RoomMatcher roomMatcher) {
         this.data = data;
+        this.roomMatcher = roomMatcher;
         this.populationSize = populationSize;
         this.mutationRate = mutationRate;
         this.crossoverRate = crossoverRate;
@@ -37,7 +65,7 @@ public class Island {
      */
     private void initializePopulation() {
         for (int i = 0; i < populationSize; i++) {
-            population.add(Individual.createRandom(data, rand));
+            population.add(Individual.createRandom(data, rand, roomMatcher));
         }
         evaluatePopulation();
     }
@@ -49,46 +77,135 @@ public class Island {
         for (Individual ind : population) {
             ind.calculateFitness();
         }
+        metrics.recordEvaluations(population.size());
+        if (roomMatcher != null) {
+            long[] cacheStats = roomMatcher.drainThreadStats();
+            metrics.recordCacheLookups(cacheStats[0], cacheStats[1]);
+        }
+        int best = Integer.MAX_VALUE;
+        long sum = 0;
+        for (Individual ind : population) {
+            best = Math.min(best, ind.getFitness());
+            sum += ind.getFitness();
+        }
+        // With diversity control the estimate drives restarts, so it uses the island's RNG (reproducible)
+        lastDiversity = diversityPolicy != null
+                ? sampleDiversity(diversityPolicy.getSamplePairs(), rand)
+                : sampleDiversity(DIVERSITY_SAMPLE_PAIRS, ThreadLocalRandom.current());
+        metrics.recordPopulation(best, (double) sum / population.size(), lastDiversity);
     }
 
     /**
-     * Evolve population for one generation
-     * Uses elitism + tournament selection + crossover + mutation
+     * Estimate diversity as the mean normalized Hamming distance of random pairs
+     * Telemetry passes its own RNG so it does not change the evolution of a seeded run
      */
-    public synchronized void evolve() {
-        List<Individual> newPopulation = new ArrayList<>(populationSize);
+    private double sampleDiversity(int pairs, Random sampler) {
+        if (population.size() < 2) {
+            return 0;
+        }
 
-        // Sort population by fitness (best first)
-        population.sort(Individual::compareTo);
+        double total = 0;
+        for (int p = 0; p < pairs; p++) {
+            Individual a = population.get(sampler.nextInt(population.size()));
+            Individual b = population.get(sampler.nextInt(population.size()));
+            total += a.distance(b);
+        }
+        return total / pairs;
+    }
 
-        // ELITISM: Keep the best individuals unchanged
-        for (int i = 0; i < eliteCount; i++) {
-            newPopulation.add(population.get(i).copy());
+    /**
+     * Mean distance of an individual to a sample of this population
+     */
+    private double distanceToPopulation(Individual candidate, int samples) {
+        double total = 0;
+        for (int i = 0; i < samples; i++) {
+            total += candidate.distance(population.get(rand.nextInt(population.size())));
+        }
+        return total / samples;
+    }
+
+    /**
+     * Replace the worst restartFraction of the population with random individuals
+     */
+    private void restartWorst() {
+        population.sort(Individual::compareTo);
+        int count = Math.min(population.size() - eliteCount,
+                (int) Math.ceil(population.size() * diversityPolicy.getRestartFraction()));
+        for (int i = population.size() - count; i < population.size(); i++) {
+            Individual fresh = Individual.createRandom(data, rand, roomMatcher);
+            fresh.calculateFitness();
+            population.set(i, fresh);
         }
+        metrics.recordEvaluations(count);
+        metrics.recordRestart(count);
+    }
 
-        // Fill rest of population with offspring
-        while (newPopulation.size() < populationSize) {
-            // SELECTION: Tournament selection
-            Individual parent1 = tournamentSelection(5);
-            Individual parent2 = tournamentSelection(5);
+    /**
+     * Evolve population for one generation
+     * Uses elitism + tournament selection + crossover + mutation
+     */
+    public void evolve() {
+        lock.lock();
+        try {
+            List<Individual> newPopulation = new ArrayList<>(populationSize);
 
-            Individual child;
+            // Sort population by fitness (best first)
+            population.sort(Individual::compareTo);
 
-            // CROSSOVER
-            if (rand.nextDouble() < crossoverRate) {
-                child = parent1.crossover(parent2, rand);
-            } else {
-                child = parent1.copy();
+            // Genome hashes of the new population, to reject exact duplicates (diversity control only)
+            Set<Long> hashes = diversityPolicy != null ? new HashSet<>() : null;
+            int rejected = 0;
+
+            // ELITISM: Keep the best individuals unchanged
+            for (int i = 0; i < eliteCount; i++) {
+                if (hashes == null || hashes.add(population.get(i).genomeHash())) {
+                    newPopulation.add(population.get(i).copy());
+                }
             }
 
-            // MUTATION
-            child.mutate(mutationRate, rand);
+            // Fill rest of population with offspring
+            while (newPopulation.size() < populationSize) {
+                // SELECTION: Tournament selection
+                Individual parent1 = tournamentSelection(5);
+                Individual parent2 = tournamentSelection(5);
 
-            newPopulation.add(child);
-        }
+                Individual child;
 
-        population = newPopulation;
-        evaluatePopulation();
+                // CROSSOVER
+                if (rand.nextDouble() < crossoverRate) {
+                    child = parent1.crossover(parent2, rand);
+                } else {
+                    child = parent1.copy();
+                }
+
+                // MUTATION
+                if (mutationFocus != null && generation < focusUntilGeneration) {
+                    // At least one expected mutation per child, however small the focus set
+                    child.mutateGenes(mutationFocus, Math.max(mutationRate, 1.0 / mutationFocus.length), rand);
+                } else {
+                    child.mutate(mutationRate, rand);
+                }
+
+                // Duplicates are dropped, up to one population's worth per generation (then accepted)
+                if (hashes != null && !hashes.add(child.genomeHash()) && rejected < populationSize) {
+                    rejected++;
+                    metrics.recordDuplicate();
+                    continue;
+                }
+
+                newPopulation.add(child);
+            }
+
+            population = newPopulation;
+            evaluatePopulation();
+            if (diversityPolicy != null && lastDiversity < diversityPolicy.getThreshold()) {
+                restartWorst();
+            }
+            generation++;
+            metrics.recordGeneration();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -110,56 +227,274 @@ public class Island {
     /**
      * Get the best individual in this island
      */
-    public synchronized Individual getBest() {
-        return population.stream()
-                .min(Individual::compareTo)
-                .orElse(null);
+    public Individual getBest() {
+        lock.lock();
+        try {
+            return population.stream()
+                    .min(Individual::compareTo)
+                    .orElse(null);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Get worst individual in this island
      */
-    public synchronized Individual getWorst() {
-        return population.stream()
-                .max(Individual::compareTo)
-                .orElse(null);
+    public Individual getWorst() {
+        lock.lock();
+        try {
+            return population.stream()
+                    .max(Individual::compareTo)
+                    .orElse(null);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Replace worst individual with immigrant from another island
+     * Returns true if the immigrant was accepted
+     */
+    public boolean receiveImmigrant(Individual immigrant) {
+        lock.lock();
+        try {
+            // Immigrants may come from an island (or rank) with a different room mode
+            immigrant = immigrant.withRoomMatcher(roomMatcher);
+
+            if (diversityPolicy != null && containsGenome(immigrant.genomeHash())) {
+                metrics.recordDuplicate();
+                return false;
+            }
+
+            // Find worst individual and replace it
+            int worstIndex = 0;
+            int worstFitness = population.get(0).getFitness();
+
+            for (int i = 1; i < population.size(); i++) {
+                if (population.get(i).getFitness() > worstFitness) {
+                    worstFitness = population.get(i).getFitness();
+                    worstIndex = i;
+                }
+            }
+
+            // Only replace if immigrant is better
+            if (immigrant.getFitness() < worstFitness) {
+                population.set(worstIndex, immigrant);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean containsGenome(long hash) {
+        for (Individual ind : population) {
+            if (ind.genomeHash() == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies of the best count individuals, best first (migration candidates)
+     */
+    public List<Individual> getMigrantCandidates(int count) {
+        lock.lock();
+        try {
+            return population.stream()
+                    .sorted()
+                    .limit(count)
+                    .map(Individual::copy)
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Migration candidates in the number this island's diversity policy offers (just the best without one)
      */
-    public synchronized void receiveImmigrant(Individual immigrant) {
-        // Find worst individual and replace it
-        int worstIndex = 0;
-        int worstFitness = population.get(0).getFitness();
+    public List<Individual> getMigrantCandidates() {
+        lock.lock();
+        try {
+            return getMigrantCandidates(diversityPolicy != null ? diversityPolicy.getMigrantCandidates() : 1);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        for (int i = 1; i < population.size(); i++) {
-            if (population.get(i).getFitness() > worstFitness) {
-                worstFitness = population.get(i).getFitness();
-                worstIndex = i;
+    /**
+     * Pick the candidate to take in as an immigrant: the first one without diversity control,
+     * else the one farthest from this population among those good enough to be accepted
+     */
+    public Individual selectImmigrant(List<Individual> candidates) {
+        lock.lock();
+        try {
+            if (diversityPolicy == null || candidates.size() == 1) {
+                return candidates.get(0);
             }
+
+            int worstFitness = getWorst().getFitness();
+            Individual chosen = candidates.get(0);
+            double chosenDistance = -1;
+            for (Individual candidate : candidates) {
+                if (candidate.getFitness() >= worstFitness) continue;
+                double distance = distanceToPopulation(candidate.withRoomMatcher(roomMatcher), diversityPolicy.getSamplePairs());
+                if (distance > chosenDistance) {
+                    chosen = candidate;
+                    chosenDistance = distance;
+                }
+            }
+            return chosen;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // Only replace if immigrant is better
-        if (immigrant.getFitness() < worstFitness) {
-            population.set(worstIndex, immigrant);
+    /**
+     * Turn on duplicate rejection, diversity restarts and distance-aware immigrant selection
+     */
+    public void setDiversityPolicy(DiversityPolicy policy) {
+        lock.lock();
+        try {
+            this.diversityPolicy = policy;
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
      * Get average fitness of population
      */
-    public synchronized double getAverageFitness() {
-        return population.stream()
-                .mapToInt(Individual::getFitness)
-                .average()
-                .orElse(0.0);
+    public double getAverageFitness() {
+        lock.lock();
+        try {
+            return population.stream()
+                    .mapToInt(Individual::getFitness)
+                    .average()
+                    .orElse(0.0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace the first individuals of the population with given seeds (warm start)
+     * The remaining random individuals keep some diversity
+     */
+    public void seedPopulation(List<Individual> seeds) {
+        lock.lock();
+        try {
+            for (int i = 0; i < seeds.size() && i < population.size(); i++) {
+                population.set(i, seeds.get(i).withRoomMatcher(roomMatcher));
+            }
+            evaluatePopulation();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restrict mutation to the given genes for the next generations
+     */
+    public void focusMutation(int[] genes, int generations) {
+        lock.lock();
+        try {
+            this.mutationFocus = genes.length == 0 ? null : genes.clone();
+            this.focusUntilGeneration = generation + generations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of generations evolved so far
+     */
+    public int getGeneration() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copy the island's state (for checkpointing)
+     * Only copies arrays, so the evolve thread is blocked for a few microseconds
+     */
+    public IslandState captureState() {
+        lock.lock();
+        try {
+            int numGenes = data.getClasses().size();
+            int[][] slots = new int[population.size()][numGenes];
+            int[][] rooms = new int[population.size()][numGenes];
+            int[] fitness = new int[population.size()];
+
+            for (int i = 0; i < population.size(); i++) {
+                Individual ind = population.get(i);
+                Gene[] genes = ind.getGenes();
+                for (int g = 0; g < numGenes; g++) {
+                    slots[i][g] = genes[g].getTimeSlot().getAbsoluteSlot();
+                    rooms[i][g] = genes[g].getRoomId();
+                }
+                fitness[i] = ind.getFitness();
+            }
+
+            return new IslandState(generation, data.fingerprint(), slots, rooms, fitness, IslandState.serializeRandom(rand));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace population, RNG and generation counter with a checkpointed state
+     */
+    public void restoreState(IslandState state) {
+        lock.lock();
+        try {
+            if (state.getInstanceHash() != data.fingerprint() || state.getNumGenes() != data.getClasses().size()) {
+                throw new IllegalStateException("Checkpoint was taken on a different problem instance");
+            }
+
+            List<Individual> restored = new ArrayList<>(state.getPopulationSize());
+            for (int i = 0; i < state.getPopulationSize(); i++) {
+                Gene[] genes = new Gene[state.getNumGenes()];
+                for (int g = 0; g < genes.length; g++) {
+                    int slot = state.getSlots()[i][g];
+                    TimeSlot timeSlot = new TimeSlot(slot / data.getHoursPerDay(), slot % data.getHoursPerDay());
+                    genes[g] = new Gene(g, timeSlot, state.getRooms()[i][g]);
+                }
+                restored.add(new Individual(genes, data, roomMatcher, state.getFitness()[i]));
+            }
+
+            this.population = restored;
+            this.rand = IslandState.deserializeRandom(state.getRngState());
+            this.generation = state.getGeneration();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Total number of fitness evaluations done by this island
+     */
+    public long getEvaluations() {
+        return metrics.getEvaluations();
     }
 
     /**
      * Check if any individual is perfect (fitness = 0)
      */
-    public synchronized boolean hasPerfectSolution() {
-        return getBest().isPerfect();
+    public boolean hasPerfectSolution() {
+        lock.lock();
+        try {
+            return getBest().isPerfect();
+        } finally {
+            lock.unlock();
+        }
     }
 }
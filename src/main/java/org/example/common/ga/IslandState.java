@@ -0,0 +1,57 @@
+package org.example.common.ga;
+
+import lombok.Value;
+
+import java.io.*;
+import java.util.Random;
+
+/**
+ * Detached copy of everything needed to resume an island:
+ * genomes, fitness values, RNG state and generation counter
+ *
+ * Genomes are stored as flat slot/room arrays (gene i always schedules class i),
+ * so capturing a state is a few array copies and can be handed to another thread.
+ */
+@Value
+public class IslandState implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    int generation;
+    int instanceHash;     // TimetableData.fingerprint() of the instance the population belongs to
+    int[][] slots;        // [individual][gene] absolute time slot
+    int[][] rooms;        // [individual][gene] room id
+    int[] fitness;        // [individual] cached fitness, -1 if not evaluated
+    byte[] rngState;      // serialized java.util.Random
+
+    public int getPopulationSize() {
+        return fitness.length;
+    }
+
+    public int getNumGenes() {
+        return slots.length == 0 ? 0 : slots[0].length;
+    }
+
+    /**
+     * java.util.Random exposes its seed only through serialization
+     */
+    static byte[] serializeRandom(Random rand) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(rand);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Random deserializeRandom(byte[] state) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            return (Random) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Corrupt RNG state", e);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.example.common.ga;
+
+import org.example.common.constraints.ConstraintKernel;
+import org.example.common.model.Room;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoder that assigns rooms to the classes of one time slot
+ *
+ * Once slots are fixed, rooms are a bipartite matching between the classes of a slot and the rooms
+ * whose capacity fits them. "Fits" is a threshold relation (a room fitting a big class fits every
+ * smaller class), so matching the largest classes to the largest rooms first is a maximum matching.
+ * Classes left unmatched cannot fit any free room; they get the leftover rooms (capacity violation)
+ * or, when every room is taken, share one (room conflict). The returned violation count is exactly
+ * what Individual's room and capacity checks would report for that placement.
+ *
+ * The result only depends on the multiset of required capacities in the slot, so it is cached
+ * by that key. The cache is shared by all islands; hit/miss counts are kept per thread so each
+ * island can report its own hit rate.
+ *
+ * When some subject requires a room feature, "fits" is no longer a threshold relation. Classes are
+ * then keyed by their kernel profile (capacity + required features) and each slot is solved as an
+ * assignment problem on the kernel's room penalties (Hungarian method); classes beyond the number
+ * of rooms share their cheapest room at one extra conflict each. The violation count is again
+ * exactly what the kernel would report with room constraints on.
+ */
+public class RoomMatcher {
+    private static final int MAX_CACHE_ENTRIES = 200_000;
+
+    private final int[] requiredCapacity;   // per class id (kernel profile when matching features)
+    private final int[] roomsByCapacity;    // room ids, largest capacity first
+    private final int[] capacityOfRank;     // capacity of roomsByCapacity[i]
+    private final ConstraintKernel kernel;  // set if rooms must also match features, else null
+    private final ConcurrentHashMap<Key, Assignment> cache = new ConcurrentHashMap<>();
+    private final ThreadLocal<long[]> threadStats = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * Cached matching for one key: room for each class in key order
+     */
+    private static final class Assignment {
+        final int[] rooms;
+        final int violations;
+
+        Assignment(int[] rooms, int violations) {
+            this.rooms = rooms;
+            this.violations = violations;
+        }
+    }
+
+    /**
+     * Sorted (descending) required capacities, or kernel profiles, of the classes in one slot
+     */
+    private static final class Key {
+        final int[] values;
+        final int hash;
+
+        Key(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(values, ((Key) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public RoomMatcher(TimetableData data) {
+        ConstraintKernel compiled = data.getKernel();
+        this.kernel = compiled.hasFeatureRequirements() ? compiled : null;
+        this.requiredCapacity = kernel == null
+                ? data.getClasses().stream().mapToInt(SchoolClass::getRequiredCapacity).toArray()
+                : data.getClasses().stream().mapToInt(cls -> kernel.getClassProfile(cls.getId())).toArray();
+        this.roomsByCapacity = data.getRooms().stream()
+                .sorted(Comparator.comparingInt(Room::getCapacity).reversed())
+                .mapToInt(Room::getId)
+                .toArray();
+        this.capacityOfRank = Arrays.stream(roomsByCapacity)
+                .map(id -> data.getRoom(id).getCapacity())
+                .toArray();
+    }
+
+    /**
+     * Assign rooms to classIds[from..to) (all in the same slot), writing them into roomsOut[from..to)
+     * Returns the room + capacity (+ feature) violations of that slot
+     */
+    public int assign(int[] classIds, int from, int to, int[] roomsOut) {
+        int count = to - from;
+        if (count == 0) {
+            return 0;
+        }
+
+        // Positions of the slot's classes, largest required capacity (or profile) first
+        // (packed as capacity << 32 | position so a primitive sort does the job)
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = ((long) requiredCapacity[classIds[from + i]] << 32) | (from + i);
+        }
+        Arrays.sort(packed);
+
+        int[] order = new int[count];
+        int[] capacities = new int[count];
+        for (int i = 0; i < count; i++) {
+            long entry = packed[count - 1 - i];
+            order[i] = (int) entry;
+            capacities[i] = (int) (entry >>> 32);
+        }
+
+        long[] stats = threadStats.get();
+        Key key = new Key(capacities);
+        Assignment assignment = cache.get(key);
+        if (assignment != null) {
+            stats[0]++;
+        } else {
+            stats[1]++;
+            assignment = kernel == null ? match(capacities) : matchProfiles(capacities);
+            if (cache.size() >= MAX_CACHE_ENTRIES) {
+                cache.clear();
+            }
+            cache.put(key, assignment);
+        }
+
+        for (int i = 0; i < count; i++) {
+            roomsOut[order[i]] = assignment.rooms[i];
+        }
+        return assignment.violations;
+    }
+
+    /**
+     * Greedy maximum matching on the threshold graph, then place the unmatched classes
+     */
+    private Assignment match(int[] capacities) {
+        int count = capacities.length;
+        int numRooms = roomsByCapacity.length;
+        int[] rooms = new int[count];
+        boolean[] matched = new boolean[count];
+        int nextRoom = 0;
+
+        for (int i = 0; i < count && nextRoom < numRooms; i++) {
+            if (capacityOfRank[nextRoom] >= capacities[i]) {
+                rooms[i] = roomsByCapacity[nextRoom++];
+                matched[i] = true;
+            }
+            // else: the largest free room is too small, so no free room fits this class
+        }
+
+        int violations = 0;
+        int spare = nextRoom;
+        int shared = 0;
+        for (int i = 0; i < count; i++) {
+            if (matched[i]) continue;
+
+            if (spare < numRooms) {
+                // Leftover room: smaller than the class by construction (capacity violation)
+                rooms[i] = roomsByCapacity[spare++];
+                violations++;
+            } else {
+                // No room left: share one, largest first (room conflict, maybe capacity too)
+                int rank = shared++ % numRooms;
+                rooms[i] = roomsByCapacity[rank];
+                violations += capacityOfRank[rank] >= capacities[i] ? 1 : 2;
+            }
+        }
+
+        return new Assignment(rooms, violations);
+    }
+
+    /**
+     * Minimum-penalty assignment of classes (by profile) to rooms
+     *
+     * Columns are the rooms, plus one overflow column per class beyond the number of rooms. An
+     * overflow class shares its cheapest room, costing one room conflict on top of that room's
+     * penalty; in an optimal assignment that room is never empty, so the count is exact.
+     */
+    private Assignment matchProfiles(int[] profiles) {
+        int n = profiles.length;
+        int numRooms = roomsByCapacity.length;
+        int m = Math.max(n, numRooms);
+
+        int[][] cost = new int[n][m];
+        int[] cheapestRoom = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int r = 0; r < numRooms; r++) {
+                cost[i][r] = kernel.roomPenalty(profiles[i], r);
+                if (cost[i][r] < cost[i][cheapestRoom[i]]) {
+                    cheapestRoom[i] = r;
+                }
+            }
+            Arrays.fill(cost[i], numRooms, m, cost[i][cheapestRoom[i]] + 1);
+        }
+
+        // Hungarian method with potentials, rows 1..n, columns 1..m (index 0 is the virtual start)
+        int[] u = new int[n + 1];
+        int[] v = new int[m + 1];
+        int[] rowOfColumn = new int[m + 1];
+        int[] way = new int[m + 1];
+        int[] minSlack = new int[m + 1];
+        boolean[] used = new boolean[m + 1];
+        for (int i = 1; i <= n; i++) {
+            rowOfColumn[0] = i;
+            int column = 0;
+            Arrays.fill(minSlack, Integer.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[column] = true;
+                int row = rowOfColumn[column];
+                int delta = Integer.MAX_VALUE;
+                int next = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    int slack = cost[row - 1][j - 1] - u[row] - v[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        way[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        next = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOfColumn[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = next;
+            } while (rowOfColumn[column] != 0);
+            do {
+                int previous = way[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] rooms = new int[n];
+        int violations = 0;
+        for (int j = 1; j <= m; j++) {
+            int row = rowOfColumn[j];
+            if (row == 0) continue;
+            rooms[row - 1] = j <= numRooms ? j - 1 : cheapestRoom[row - 1];
+            violations += cost[row - 1][j - 1];
+        }
+
+        return new Assignment(rooms, violations);
+    }
+
+    /**
+     * Return and reset {hits, misses} counted on the calling thread
+     */
+    public long[] drainThreadStats() {
+        long[] stats = threadStats.get();
+        long[] result = stats.clone();
+        stats[0] = 0;
+        stats[1] = 0;
+        return result;
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.common.incremental;
+
+import org.example.common.constraints.ConstraintModel;
+import org.example.common.model.Room;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A small change to a problem instance, read from a text file with one operation per line:
+ *
+ *   add-class      <subject> <teacherId> <groupId> <size>
+ *   remove-class   <classId>
+ *   change-teacher <classId> <teacherId>    (teacher no longer available for that class)
+ *   change-size    <classId> <size>
+ *   close-room     <roomId>                 (capacity set to 0, ids stay stable)
+ *   add-room       <capacity>
+ *   teacher-unavailable <teacherId> <day> <fromHour> <toHour>   (added to the constraint model)
+ *
+ * Lines starting with '#' are comments. Ids refer to the instance the delta is applied to.
+ */
+public class ProblemDelta {
+    private final List<String[]> operations = new ArrayList<>();
+
+    /**
+     * Result of applying a delta: the new instance and how old classes map onto it
+     */
+    public static class Applied {
+        private final TimetableData data;
+        private final int[] oldToNew;      // old class id -> new class id, -1 if removed
+        private final int[] changedClasses; // new class ids that were added or modified
+
+        Applied(TimetableData data, int[] oldToNew, int[] changedClasses) {
+            this.data = data;
+            this.oldToNew = oldToNew;
+            this.changedClasses = changedClasses;
+        }
+
+        public TimetableData getData() {
+            return data;
+        }
+
+        public int[] getOldToNew() {
+            return oldToNew;
+        }
+
+        public int[] getChangedClasses() {
+            return changedClasses;
+        }
+    }
+
+    public static ProblemDelta read(Path file) throws IOException {
+        ProblemDelta delta = new ProblemDelta();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                try {
+                    delta.add(line.split("\\s+"));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file.getFileName() + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Add one operation, e.g. {"remove-class", "12"}
+     */
+    public ProblemDelta add(String... operation) {
+        int expected;
+        switch (operation[0]) {
+            case "add-class":
+            case "teacher-unavailable": expected = 5; break;
+            case "change-teacher":
+            case "change-size": expected = 3; break;
+            case "remove-class":
+            case "close-room":
+            case "add-room": expected = 2; break;
+            default: throw new IllegalArgumentException("Unknown operation: " + operation[0]);
+        }
+        if (operation.length != expected) {
+            throw new IllegalArgumentException(operation[0] + " expects " + (expected - 1) + " arguments");
+        }
+        operations.add(operation);
+        return this;
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Apply all operations to an instance
+     */
+    public Applied apply(TimetableData old) {
+        int numOld = old.getClasses().size();
+        List<SchoolClass> classes = new ArrayList<>(old.getClasses());
+        List<Room> rooms = new ArrayList<>(old.getRooms());
+        boolean[] removed = new boolean[numOld];
+        Set<Integer> changed = new HashSet<>(); // indexes into 'classes' before renumbering
+        int numTeachers = old.getNumTeachers();
+        int numGroups = old.getNumStudentGroups();
+        ConstraintModel constraints = old.getConstraints(); // copied before the first change
+
+        for (String[] op : operations) {
+            switch (op[0]) {
+                case "add-class": {
+                    int teacher = parseInt(op[2]);
+                    int group = parseInt(op[3]);
+                    numTeachers = Math.max(numTeachers, teacher + 1);
+                    numGroups = Math.max(numGroups, group + 1);
+                    classes.add(new SchoolClass(classes.size(), op[1], teacher, group, parseInt(op[4])));
+                    changed.add(classes.size() - 1);
+                    break;
+                }
+                case "remove-class": {
+                    int id = checkClass(parseInt(op[1]), numOld);
+                    removed[id] = true;
+                    break;
+                }
+                case "change-teacher": {
+                    int id = checkClass(parseInt(op[1]), numOld);
+                    int teacher = parseInt(op[2]);
+                    numTeachers = Math.max(numTeachers, teacher + 1);
+                    SchoolClass c = classes.get(id);
+                    classes.set(id, new SchoolClass(id, c.getSubject(), teacher, c.getStudentGroup(), c.getRequiredCapacity()));
+                    changed.add(id);
+                    break;
+                }
+                case "change-size": {
+                    int id = checkClass(parseInt(op[1]), numOld);
+                    SchoolClass c = classes.get(id);
+                    classes.set(id, new SchoolClass(id, c.getSubject(), c.getTeacherId(), c.getStudentGroup(), parseInt(op[2])));
+                    changed.add(id);
+                    break;
+                }
+                case "close-room": {
+                    int id = parseInt(op[1]);
+                    if (id < 0 || id >= rooms.size()) {
+                        throw new IllegalArgumentException("Unknown room " + id);
+                    }
+                    rooms.set(id, new Room(id, 0));
+                    break;
+                }
+                case "add-room":
+                    rooms.add(new Room(rooms.size(), parseInt(op[1])));
+                    break;
+                case "teacher-unavailable":
+                    if (constraints == old.getConstraints()) {
+                        constraints = constraints.copy();
+                    }
+                    constraints.teacherUnavailable(parseInt(op[1]), parseInt(op[2]), parseInt(op[3]), parseInt(op[4]),
+                            old.getDaysPerWeek(), old.getHoursPerDay());
+                    break;
+                default:
+                    throw new IllegalStateException(op[0]);
+            }
+        }
+
+        // Renumber so that class id == index again
+        int[] oldToNew = new int[numOld];
+        int[] indexToNew = new int[classes.size()];
+        List<SchoolClass> renumbered = new ArrayList<>(classes.size());
+        for (int i = 0; i < classes.size(); i++) {
+            if (i < numOld && removed[i]) {
+                indexToNew[i] = -1;
+                oldToNew[i] = -1;
+                continue;
+            }
+            SchoolClass c = classes.get(i);
+            indexToNew[i] = renumbered.size();
+            if (i < numOld) {
+                oldToNew[i] = renumbered.size();
+            }
+            renumbered.add(new SchoolClass(renumbered.size(), c.getSubject(), c.getTeacherId(), c.getStudentGroup(), c.getRequiredCapacity()));
+        }
+
+        int[] changedClasses = changed.stream()
+                .mapToInt(i -> indexToNew[i])
+                .filter(i -> i >= 0)
+                .sorted()
+                .toArray();
+
+        TimetableData data = new TimetableData(renumbered, rooms, numTeachers, numGroups)
+                .withConstraints(constraints);
+        return new Applied(data, oldToNew, changedClasses);
+    }
+
+    private static int checkClass(int id, int numClasses) {
+        if (id < 0 || id >= numClasses) {
+            throw new IllegalArgumentException("Unknown class " + id);
+        }
+        return id;
+    }
+
+    private static int parseInt(String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n < 0) {
+                throw new IllegalArgumentException("Negative value: " + value);
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.common.incremental;
+
+import org.example.common.ga.Individual;
+import org.example.common.model.Gene;
+import org.example.common.model.TimeSlot;
+import org.example.common.model.TimetableData;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Plain CSV timetable (class,day,hour,room), used to save a solution and warm-start from it later
+ */
+public final class SolutionFile {
+    private static final String HEADER = "class,day,hour,room";
+
+    private SolutionFile() {
+    }
+
+    public static void write(Path file, Individual solution) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println(HEADER);
+            for (Gene gene : solution.getGenes()) {
+                out.println(gene.getClassId() + "," + gene.getTimeSlot().getDay() + ","
+                        + gene.getTimeSlot().getHour() + "," + gene.getRoomId());
+            }
+        }
+    }
+
+    /**
+     * Read genes of a solution for the given instance (one line per class)
+     */
+    public static Gene[] read(Path file, TimetableData data) throws IOException {
+        Gene[] genes = new Gene[data.getClasses().size()];
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null || !line.strip().equals(HEADER)) {
+                throw new IOException(file + ": expected header '" + HEADER + "'");
+            }
+
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                String[] fields = line.split(",");
+                try {
+                    int classId = Integer.parseInt(fields[0].strip());
+                    int day = Integer.parseInt(fields[1].strip());
+                    int hour = Integer.parseInt(fields[2].strip());
+                    int room = Integer.parseInt(fields[3].strip());
+                    if (classId < 0 || classId >= genes.length || day < 0 || day >= data.getDaysPerWeek()
+                            || hour < 0 || hour >= data.getHoursPerDay() || room < 0 || room >= data.getRooms().size()) {
+                        throw new IOException(file.getFileName() + ":" + lineNumber + ": value out of range");
+                    }
+                    genes[classId] = new Gene(classId, new TimeSlot(day, hour), room);
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException(file.getFileName() + ":" + lineNumber + ": malformed line");
+                }
+            }
+        }
+
+        for (int i = 0; i < genes.length; i++) {
+            if (genes[i] == null) {
+                throw new IOException(file + ": no assignment for class " + i);
+            }
+        }
+        return genes;
+    }
+}
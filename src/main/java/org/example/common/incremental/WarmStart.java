@@ -0,0 +1,173 @@
+package org.example.common.incremental;
+
+import org.example.common.constraints.KernelState;
+import org.example.common.ga.Individual;
+import org.example.common.ga.Island;
+import org.example.common.model.Gene;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimeSlot;
+import org.example.common.model.TimetableData;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Incremental re-optimisation: start from a previous timetable instead of random populations
+ *
+ * 1. Apply the problem delta and carry the old genes over to the new class ids
+ * 2. Greedily re-place the new and changed classes against the rest of the old timetable
+ * 3. Also re-place every old placement the kernel still reports a violation for (a room that is
+ *    too small or lacks a feature, a slot the teacher is now unavailable in, a clash, ...)
+ * 4. Seed islands with variants of that repair, and mutate only the affected genes
+ *    (plus classes sharing their teacher or group) for the first generations
+ *
+ * The work is proportional to the size of the change, not the size of the instance.
+ */
+public class WarmStart {
+    private static final double VARIANT_MUTATION_RATE = 0.3;
+
+    private final TimetableData data;
+    private final Gene[] repaired;
+    private final int[] affectedGenes;
+    private final int[] focusGenes;
+
+    private WarmStart(TimetableData data, Gene[] repaired, int[] affectedGenes, int[] focusGenes) {
+        this.data = data;
+        this.repaired = repaired;
+        this.affectedGenes = affectedGenes;
+        this.focusGenes = focusGenes;
+    }
+
+    /**
+     * Apply delta to the instance the previous solution was computed for, and repair that solution
+     */
+    public static WarmStart prepare(TimetableData base, Gene[] previous, ProblemDelta delta) {
+        ProblemDelta.Applied applied = delta.apply(base);
+        TimetableData data = applied.getData();
+        int numClasses = data.getClasses().size();
+
+        // Carry old assignments over to the new class ids
+        Gene[] genes = new Gene[numClasses];
+        int[] oldToNew = applied.getOldToNew();
+        for (int old = 0; old < oldToNew.length; old++) {
+            int id = oldToNew[old];
+            if (id >= 0) {
+                genes[id] = new Gene(id, previous[old].getTimeSlot(), previous[old].getRoomId());
+            }
+        }
+
+        // New classes start at a placeholder; they are the first to be re-placed
+        for (int id = 0; id < numClasses; id++) {
+            if (genes[id] == null) {
+                genes[id] = new Gene(id, new TimeSlot(0, 0), data.getValidRooms(id)[0]);
+            }
+        }
+        KernelState state = data.getKernel().newState(genes);
+
+        BitSet affected = new BitSet(numClasses);
+        for (int id : applied.getChangedClasses()) {
+            affected.set(id);
+        }
+        greedyRepair(data, state, affected);
+
+        BitSet conflicting = new BitSet(numClasses);
+        for (int id = 0; id < numClasses; id++) {
+            if (!affected.get(id) && state.conflicts(id) > 0) {
+                conflicting.set(id);
+            }
+        }
+        greedyRepair(data, state, conflicting);
+        affected.or(conflicting);
+
+        return new WarmStart(data, state.toGenes(), affected.stream().toArray(),
+                neighbourhood(data, affected).stream().toArray());
+    }
+
+    /**
+     * Move every given class to the (slot, room) that lowers the kernel's violations the most,
+     * given all other placements. Ties keep the class where it is.
+     */
+    private static void greedyRepair(TimetableData data, KernelState state, BitSet classes) {
+        int numSlots = data.getTotalTimeSlots();
+        for (int id = classes.nextSetBit(0); id >= 0; id = classes.nextSetBit(id + 1)) {
+            int bestSlot = state.getSlot(id), bestRoom = state.getRoom(id), bestDelta = 0;
+            for (int slot = 0; slot < numSlots; slot++) {
+                for (int room : data.getValidRooms(id)) {
+                    int delta = state.deltaMove(id, slot, room);
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestSlot = slot;
+                        bestRoom = room;
+                    }
+                }
+            }
+            if (bestDelta < 0) {
+                state.move(id, bestSlot, bestRoom);
+            }
+        }
+    }
+
+    /**
+     * Affected classes plus every class sharing a teacher or student group with one of them:
+     * those are the genes that may have to move to make room
+     */
+    private static BitSet neighbourhood(TimetableData data, BitSet affected) {
+        BitSet teachers = new BitSet(data.getNumTeachers());
+        BitSet groups = new BitSet(data.getNumStudentGroups());
+        for (int id = affected.nextSetBit(0); id >= 0; id = affected.nextSetBit(id + 1)) {
+            teachers.set(data.getClass(id).getTeacherId());
+            groups.set(data.getClass(id).getStudentGroup());
+        }
+
+        BitSet focus = (BitSet) affected.clone();
+        for (SchoolClass cls : data.getClasses()) {
+            if (teachers.get(cls.getTeacherId()) || groups.get(cls.getStudentGroup())) {
+                focus.set(cls.getId());
+            }
+        }
+        return focus;
+    }
+
+    /**
+     * Seed an island with the repaired timetable and count - 1 variants of it,
+     * and focus its mutation on the affected neighbourhood for focusGenerations
+     */
+    public void seed(Island island, int count, long seed, int focusGenerations) {
+        Random rand = new Random(seed);
+        List<Individual> seeds = new ArrayList<>(count);
+        seeds.add(getRepaired());
+
+        for (int i = 1; i < count; i++) {
+            Individual variant = getRepaired();
+            variant.mutateGenes(focusGenes, VARIANT_MUTATION_RATE, rand);
+            seeds.add(variant);
+        }
+
+        island.seedPopulation(seeds);
+        island.focusMutation(focusGenes, focusGenerations);
+    }
+
+    /**
+     * The new problem instance (after the delta)
+     */
+    public TimetableData getData() {
+        return data;
+    }
+
+    /**
+     * A fresh copy of the greedily repaired previous timetable
+     */
+    public Individual getRepaired() {
+        return new Individual(repaired.clone(), data);
+    }
+
+    public int[] getAffectedGenes() {
+        return affectedGenes.clone();
+    }
+
+    public int[] getFocusGenes() {
+        return focusGenes.clone();
+    }
+}
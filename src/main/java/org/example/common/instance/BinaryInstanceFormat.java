@@ -0,0 +1,182 @@
+package org.example.common.instance;
+
+import org.example.common.model.Room;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary problem instance (.tti)
+ *
+ * Layout (big endian):
+ *   int   magic "GATT"
+ *   short version
+ *   int   numTeachers, numGroups, numRooms, numClasses, numSubjects
+ *   per subject: short length, UTF-8 bytes
+ *   per room:    int capacity
+ *   per class:   short subject, int teacherId, int studentGroup, int requiredCapacity
+ *   long  CRC32 of everything above
+ *
+ * The same bytes are used on disk (memory-mapped on load) and on the wire (MPI bcast).
+ */
+public final class BinaryInstanceFormat {
+    public static final String EXTENSION = ".tti";
+
+    private static final int MAGIC = 0x47415454; // "GATT"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 5 * 4;
+    private static final int CLASS_BYTES = 2 + 3 * 4;
+
+    private BinaryInstanceFormat() {
+    }
+
+    /**
+     * Encode an instance into a byte array
+     */
+    public static byte[] encode(TimetableData data) {
+        List<String> subjects = new ArrayList<>();
+        Map<String, Integer> subjectIds = new HashMap<>();
+        for (SchoolClass cls : data.getClasses()) {
+            subjectIds.computeIfAbsent(cls.getSubject(), s -> {
+                subjects.add(s);
+                return subjects.size() - 1;
+            });
+        }
+        if (subjects.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many distinct subjects: " + subjects.size());
+        }
+
+        List<byte[]> subjectBytes = new ArrayList<>(subjects.size());
+        int size = HEADER_BYTES + data.getRooms().size() * 4 + data.getClasses().size() * CLASS_BYTES + 8;
+        for (String subject : subjects) {
+            byte[] bytes = subject.getBytes(StandardCharsets.UTF_8);
+            subjectBytes.add(bytes);
+            size += 2 + bytes.length;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(MAGIC);
+        buf.putShort(VERSION);
+        buf.putInt(data.getNumTeachers());
+        buf.putInt(data.getNumStudentGroups());
+        buf.putInt(data.getRooms().size());
+        buf.putInt(data.getClasses().size());
+        buf.putInt(subjects.size());
+
+        for (byte[] bytes : subjectBytes) {
+            buf.putShort((short) bytes.length);
+            buf.put(bytes);
+        }
+        for (Room room : data.getRooms()) {
+            buf.putInt(room.getCapacity());
+        }
+        for (SchoolClass cls : data.getClasses()) {
+            buf.putShort(subjectIds.get(cls.getSubject()).shortValue());
+            buf.putInt(cls.getTeacherId());
+            buf.putInt(cls.getStudentGroup());
+            buf.putInt(cls.getRequiredCapacity());
+        }
+        buf.putLong(checksum(buf, size - 8));
+
+        return buf.array();
+    }
+
+    /**
+     * Decode and validate an instance (checksum, header, id ranges)
+     */
+    public static TimetableData decode(ByteBuffer buf) throws IOException {
+        int size = buf.remaining();
+        ByteBuffer in = buf.slice();
+        if (size < HEADER_BYTES + 8) {
+            throw new IOException("Instance data too small: " + size + " bytes");
+        }
+        if (in.getLong(size - 8) != checksum(in, size - 8)) {
+            throw new IOException("Instance checksum mismatch");
+        }
+        if (in.getInt() != MAGIC || in.getShort() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " timetable instance");
+        }
+
+        int numTeachers = in.getInt();
+        int numGroups = in.getInt();
+        int numRooms = in.getInt();
+        int numClasses = in.getInt();
+        int numSubjects = in.getInt();
+        if (numTeachers <= 0 || numGroups <= 0 || numRooms <= 0 || numClasses <= 0 || numSubjects < 0) {
+            throw new IOException("Invalid instance header");
+        }
+
+        String[] subjects = new String[numSubjects];
+        for (int i = 0; i < numSubjects; i++) {
+            byte[] bytes = new byte[in.getShort()];
+            in.get(bytes);
+            subjects[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        if (in.remaining() != numRooms * 4L + (long) numClasses * CLASS_BYTES + 8) {
+            throw new IOException("Instance size does not match its header");
+        }
+
+        List<Room> rooms = new ArrayList<>(numRooms);
+        for (int i = 0; i < numRooms; i++) {
+            rooms.add(new Room(i, in.getInt()));
+        }
+
+        List<SchoolClass> classes = new ArrayList<>(numClasses);
+        for (int i = 0; i < numClasses; i++) {
+            int subject = in.getShort();
+            int teacher = in.getInt();
+            int group = in.getInt();
+            int capacity = in.getInt();
+            if (subject < 0 || subject >= numSubjects || teacher < 0 || teacher >= numTeachers
+                    || group < 0 || group >= numGroups || capacity < 0) {
+                throw new IOException("Class " + i + " references an unknown subject, teacher or group");
+            }
+            classes.add(new SchoolClass(i, subjects[subject], teacher, group, capacity));
+        }
+
+        return new TimetableData(classes, rooms, numTeachers, numGroups);
+    }
+
+    /**
+     * Memory-map a .tti file and decode it
+     */
+    public static TimetableData read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return decode(buf);
+            } catch (IOException e) {
+                throw new IOException(file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Write an instance to a .tti file (temp file + atomic rename)
+     */
+    public static void write(Path file, TimetableData data) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, encode(data));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long checksum(ByteBuffer buf, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buf.duplicate();
+        view.position(0).limit(length);
+        crc.update(view);
+        return crc.getValue();
+    }
+}
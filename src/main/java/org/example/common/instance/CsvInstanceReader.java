@@ -0,0 +1,173 @@
+package org.example.common.instance;
+
+import org.example.common.model.Room;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Streaming importer for real timetables stored as CSV files in one directory
+ *
+ *   rooms.csv     room,capacity
+ *   classes.csv   subject,teacher,group,size
+ *   teachers.csv  name            (optional, fixes teacher ids / adds teachers without classes)
+ *   groups.csv    name            (optional, same for student groups)
+ *
+ * Columns are matched by header name (case-insensitive), so extra columns are ignored.
+ * Teachers, groups and rooms are referenced by name and numbered in order of first appearance.
+ * Files are read line by line; only the resulting model is kept in memory.
+ */
+public final class CsvInstanceReader {
+    public static final String ROOMS_FILE = "rooms.csv";
+    public static final String CLASSES_FILE = "classes.csv";
+    public static final String TEACHERS_FILE = "teachers.csv";
+    public static final String GROUPS_FILE = "groups.csv";
+
+    private CsvInstanceReader() {
+    }
+
+    public static TimetableData read(Path directory) throws IOException {
+        Map<String, Integer> teacherIds = new HashMap<>();
+        Map<String, Integer> groupIds = new HashMap<>();
+        readNames(directory.resolve(TEACHERS_FILE), teacherIds);
+        readNames(directory.resolve(GROUPS_FILE), groupIds);
+
+        List<Room> rooms = new ArrayList<>();
+        Set<String> roomNames = new HashSet<>();
+        forEachRow(directory.resolve(ROOMS_FILE), new String[]{"room", "capacity"}, (row, where) -> {
+            if (!roomNames.add(row[0])) {
+                throw new IOException(where + ": duplicate room " + row[0]);
+            }
+            rooms.add(new Room(rooms.size(), parseCount(row[1], where)));
+        });
+
+        List<SchoolClass> classes = new ArrayList<>();
+        forEachRow(directory.resolve(CLASSES_FILE), new String[]{"subject", "teacher", "group", "size"}, (row, where) -> {
+            int teacherId = teacherIds.computeIfAbsent(row[1], name -> teacherIds.size());
+            int groupId = groupIds.computeIfAbsent(row[2], name -> groupIds.size());
+            classes.add(new SchoolClass(classes.size(), row[0].intern(), teacherId, groupId, parseCount(row[3], where)));
+        });
+
+        if (rooms.isEmpty()) {
+            throw new IOException(directory.resolve(ROOMS_FILE) + ": no rooms");
+        }
+        if (classes.isEmpty()) {
+            throw new IOException(directory.resolve(CLASSES_FILE) + ": no classes");
+        }
+
+        return new TimetableData(classes, rooms, Math.max(1, teacherIds.size()), Math.max(1, groupIds.size()));
+    }
+
+    private interface RowHandler {
+        void accept(String[] row, String where) throws IOException;
+    }
+
+    /**
+     * Optional one-column name list: each name gets the next id
+     */
+    private static void readNames(Path file, Map<String, Integer> ids) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        forEachRow(file, new String[]{"name"}, (row, where) -> ids.putIfAbsent(row[0], ids.size()));
+    }
+
+    /**
+     * Stream the rows of a CSV file, passing the requested columns in order
+     */
+    private static void forEachRow(Path file, String[] columns, RowHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException(file + ": empty file");
+            }
+
+            List<String> names = parseLine(header.replace("\uFEFF", ""));
+            int[] index = new int[columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                index[c] = indexOfIgnoreCase(names, columns[c]);
+                if (index[c] < 0) {
+                    throw new IOException(file + ": missing column '" + columns[c] + "'");
+                }
+            }
+
+            String line;
+            int lineNumber = 1;
+            String[] row = new String[columns.length];
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                List<String> fields = parseLine(line);
+                String where = file.getFileName() + ":" + lineNumber;
+                for (int c = 0; c < columns.length; c++) {
+                    if (index[c] >= fields.size() || fields.get(index[c]).isEmpty()) {
+                        throw new IOException(where + ": missing value for '" + columns[c] + "'");
+                    }
+                    row[c] = fields.get(index[c]);
+                }
+                handler.accept(row, where);
+            }
+        }
+    }
+
+    private static int indexOfIgnoreCase(List<String> names, String column) {
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Split one CSV line (RFC 4180 quoting, no embedded newlines)
+     */
+    private static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString().trim());
+
+        return fields;
+    }
+
+    private static int parseCount(String value, String where) throws IOException {
+        try {
+            int n = Integer.parseInt(value);
+            if (n < 0) {
+                throw new IOException(where + ": negative value " + value);
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IOException(where + ": not a number: " + value);
+        }
+    }
+}
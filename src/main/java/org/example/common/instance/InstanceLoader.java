@@ -0,0 +1,42 @@
+package org.example.common.instance;
+
+import org.example.common.model.TimetableData;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Loads a problem instance from disk: a CSV directory or a binary .tti file
+ *
+ * As a program it converts a CSV directory to the binary format:
+ *   InstanceLoader <csv-directory> <instance.tti>
+ */
+public final class InstanceLoader {
+
+    private InstanceLoader() {
+    }
+
+    public static TimetableData load(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            return CsvInstanceReader.read(path);
+        }
+        if (path.getFileName().toString().endsWith(BinaryInstanceFormat.EXTENSION)) {
+            return BinaryInstanceFormat.read(path);
+        }
+        throw new IOException("Unknown instance format (expected a CSV directory or *" + BinaryInstanceFormat.EXTENSION + "): " + path);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: InstanceLoader <csv-directory> <instance" + BinaryInstanceFormat.EXTENSION + ">");
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        TimetableData data = CsvInstanceReader.read(Paths.get(args[0]));
+        BinaryInstanceFormat.write(Paths.get(args[1]), data);
+        System.out.println("Converted " + data + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.common.localsearch;
+
+import org.example.common.constraints.KernelState;
+import org.example.common.ga.Individual;
+import org.example.common.model.Gene;
+import org.example.common.model.TimeSlot;
+import org.example.common.model.TimetableData;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Single-solution search over (slot, room) moves and slot swaps, scored by KernelState deltas
+ *
+ * A move costs O(1) to evaluate, so a step is orders of magnitude cheaper than a GA generation.
+ * Subclasses decide which move to make in step(); this class keeps the current state, the best
+ * state seen so far and the move counter. The best state is only copied when the search is about
+ * to leave it with a worsening move (or when asked for), not on every improvement.
+ */
+public abstract class LocalSearch {
+    private static final int CONFLICT_SAMPLES = 16; // Random classes tried to find one in conflict
+    private static final int TIME_CHECK_MOVES = 256; // Moves between two clock reads in a timed run
+
+    protected final TimetableData data;
+    protected final Random rand;
+    protected final int numClasses;
+    protected final int numSlots;
+    protected KernelState state;
+
+    private final int[] bestSlots;
+    private final int[] bestRooms;
+    private int bestViolations = Integer.MAX_VALUE;
+    private boolean atUnsavedBest; // Current state is the best one and not copied yet
+    private long evaluations;
+
+    protected LocalSearch(TimetableData data, long seed) {
+        this.data = data;
+        this.rand = new Random(seed);
+        this.numClasses = data.getClasses().size();
+        this.numSlots = data.getTotalTimeSlots();
+        this.bestSlots = new int[numClasses];
+        this.bestRooms = new int[numClasses];
+    }
+
+    /**
+     * Engine by name: "sa" (simulated annealing) or "tabu"
+     */
+    public static LocalSearch create(String kind, TimetableData data, long seed) {
+        switch (kind.toLowerCase(Locale.ROOT)) {
+            case "sa":
+            case "annealing":
+                return new SimulatedAnnealing(data, seed);
+            case "tabu":
+                return new TabuSearch(data, seed);
+            default:
+                throw new IllegalArgumentException("Unknown local search (expected sa or tabu): " + kind);
+        }
+    }
+
+    /**
+     * Continue from the given genome (which becomes the best so far)
+     */
+    public void reset(Gene[] genes) {
+        state = data.getKernel().newState(genes);
+        bestViolations = state.getViolations();
+        saveBest();
+        onReset();
+    }
+
+    /**
+     * Search until about moves more moves are evaluated, or the best reaches target violations
+     * (a budget in moves rather than steps, since a tabu step evaluates a whole neighbourhood)
+     */
+    public void run(long moves, int target) {
+        run(moves, target, 0);
+    }
+
+    /**
+     * Same, but also stop after about maxNanos of wall time (0 = no time limit)
+     */
+    public void run(long moves, int target, long maxNanos) {
+        long end = evaluations + moves;
+        long deadline = System.nanoTime() + maxNanos;
+        long nextCheck = evaluations + TIME_CHECK_MOVES;
+        while (evaluations < end && bestViolations > target) {
+            if (maxNanos > 0 && evaluations >= nextCheck) {
+                if (System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+                nextCheck = evaluations + TIME_CHECK_MOVES;
+            }
+            step();
+        }
+    }
+
+    /**
+     * Make one move (or none)
+     */
+    protected abstract void step();
+
+    /**
+     * Called after reset, to clear the engine's own state
+     */
+    protected void onReset() {
+    }
+
+    /**
+     * A random class, preferably one involved in a violation
+     */
+    protected int pickClass() {
+        int c = rand.nextInt(numClasses);
+        for (int i = 1; i < CONFLICT_SAMPLES && state.conflicts(c) == 0; i++) {
+            c = rand.nextInt(numClasses);
+        }
+        return c;
+    }
+
+    protected int deltaMove(int classId, int slot, int room) {
+        evaluations++;
+        return state.deltaMove(classId, slot, room);
+    }
+
+    protected int deltaSwapSlots(int a, int b) {
+        evaluations++;
+        return state.deltaSwapSlots(a, b);
+    }
+
+    protected void move(int classId, int slot, int room, int delta) {
+        beforeMove(delta);
+        state.move(classId, slot, room);
+        afterMove();
+    }
+
+    protected void swapSlots(int a, int b, int delta) {
+        beforeMove(delta);
+        state.swapSlots(a, b);
+        afterMove();
+    }
+
+    private void beforeMove(int delta) {
+        if (delta > 0 && atUnsavedBest) {
+            saveBest();
+        }
+    }
+
+    private void afterMove() {
+        if (state.getViolations() < bestViolations) {
+            bestViolations = state.getViolations();
+            atUnsavedBest = true;
+        }
+    }
+
+    private void saveBest() {
+        for (int c = 0; c < numClasses; c++) {
+            bestSlots[c] = state.getSlot(c);
+            bestRooms[c] = state.getRoom(c);
+        }
+        atUnsavedBest = false;
+    }
+
+    public int getBestViolations() {
+        return bestViolations;
+    }
+
+    /**
+     * Best genome found since the last reset, as an individual with rooms in the genome
+     */
+    public Individual getBest() {
+        if (atUnsavedBest) {
+            saveBest();
+        }
+        int hoursPerDay = data.getHoursPerDay();
+        Gene[] genes = new Gene[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            genes[c] = new Gene(c, new TimeSlot(bestSlots[c] / hoursPerDay, bestSlots[c] % hoursPerDay), bestRooms[c]);
+        }
+        return new Individual(genes, data, null, bestViolations);
+    }
+
+    /**
+     * Moves evaluated so far (each one a KernelState delta)
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+}
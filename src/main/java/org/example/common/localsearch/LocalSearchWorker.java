@@ -0,0 +1,124 @@
+package org.example.common.localsearch;
+
+import org.example.common.ga.Individual;
+import org.example.common.ga.Island;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Couples a LocalSearch engine to islands, through the same getBest / receiveImmigrant calls
+ * that migration uses
+ *
+ * One round: if the islands have something better than the engine's best, the engine restarts
+ * from it; then it evaluates movesPerRound moves, and a result better than the islands' best goes to
+ * one island (in turn) as an immigrant. After STAGNANT_ROUNDS rounds without progress the engine
+ * restarts from the best of a random island, for diversity.
+ *
+ * Threads call round() in a loop (loop(stop)); an MPI rank calls it once per generation with its
+ * own island, whose population is then what the rank exchanges with its neighbours. There a round
+ * is also bounded in wall time (roundNanos), so the rank keeps pace with the evolving ranks.
+ * A portfolio race replaces islands while it runs, so the islands can also be read anew every round.
+ */
+public class LocalSearchWorker {
+    private static final int STAGNANT_ROUNDS = 3;
+
+    private final LocalSearch engine;
+    private final Supplier<List<Island>> islands;
+    private final int movesPerRound;
+    private final int target;
+    private final long roundNanos; // Wall-time limit of one round, 0 = moves only
+    private final Random rand;
+    private boolean started;
+    private int stagnantRounds;
+    private int nextIsland;
+    private long improvementsSent;
+
+    /**
+     * target is the fitness at which searching stops (the proven lower bound)
+     */
+    public LocalSearchWorker(LocalSearch engine, List<Island> islands, int movesPerRound, int target, long seed) {
+        this(engine, islands, movesPerRound, target, 0, seed);
+    }
+
+    /**
+     * Worker whose rounds also end after roundNanos of wall time
+     */
+    public LocalSearchWorker(LocalSearch engine, List<Island> islands, int movesPerRound, int target, long roundNanos,
+                             long seed) {
+        this(engine, () -> islands, movesPerRound, target, roundNanos, seed);
+    }
+
+    /**
+     * Worker that asks for the current islands at the start of every round
+     */
+    public LocalSearchWorker(LocalSearch engine, Supplier<List<Island>> islands, int movesPerRound, int target,
+                             long roundNanos, long seed) {
+        this.engine = engine;
+        this.islands = islands;
+        this.movesPerRound = movesPerRound;
+        this.target = target;
+        this.roundNanos = roundNanos;
+        this.rand = new Random(seed);
+    }
+
+    public void round() {
+        List<Island> islands = this.islands.get();
+        Individual source = bestOfIslands(islands);
+        if (!started || source.getFitness() < engine.getBestViolations()) {
+            engine.reset(source.getGenes());
+            started = true;
+            stagnantRounds = 0;
+        } else if (stagnantRounds >= STAGNANT_ROUNDS) {
+            engine.reset(islands.get(rand.nextInt(islands.size())).getBest().copy().getGenes());
+            stagnantRounds = 0;
+        }
+
+        int before = engine.getBestViolations();
+        engine.run(movesPerRound, target, roundNanos);
+        stagnantRounds = engine.getBestViolations() < before ? 0 : stagnantRounds + 1;
+
+        if (engine.getBestViolations() < source.getFitness()) {
+            Island destination = islands.get(nextIsland++ % islands.size());
+            long start = System.nanoTime();
+            boolean accepted = destination.receiveImmigrant(engine.getBest());
+            destination.getMetrics().recordMigration(System.nanoTime() - start, accepted);
+            improvementsSent++;
+        }
+    }
+
+    /**
+     * Rounds until stop says so or the target is reached, for running on its own thread
+     */
+    public Runnable loop(BooleanSupplier stop) {
+        return () -> {
+            while (!stop.getAsBoolean() && !(started && engine.getBestViolations() <= target)) {
+                round();
+            }
+        };
+    }
+
+    private static Individual bestOfIslands(List<Island> islands) {
+        Individual best = islands.get(0).getBest();
+        for (Island island : islands) {
+            if (island.getBest().getFitness() < best.getFitness()) {
+                best = island.getBest();
+            }
+        }
+        // The island keeps evolving meanwhile: work on a copy of the genes
+        return best.copy();
+    }
+
+    public LocalSearch getEngine() {
+        return engine;
+    }
+
+    /**
+     * Results handed to islands because they beat the islands' best
+     */
+    public long getImprovementsSent() {
+        return improvementsSent;
+    }
+}
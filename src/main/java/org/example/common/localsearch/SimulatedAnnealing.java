@@ -0,0 +1,68 @@
+package org.example.common.localsearch;
+
+import org.example.common.model.TimetableData;
+
+/**
+ * Simulated annealing: one random move or slot swap per step, worsening moves accepted with
+ * probability exp(-delta / temperature)
+ *
+ * The temperature cools geometrically every step and is reheated once it drops below
+ * MIN_TEMPERATURE, so a long run is a series of annealing cycles from the current state.
+ */
+public class SimulatedAnnealing extends LocalSearch {
+    private static final double MIN_TEMPERATURE = 0.05;
+
+    private final double initialTemperature;
+    private final double coolingRate;
+    private final double swapProbability;
+    private double temperature;
+
+    public SimulatedAnnealing(TimetableData data, long seed) {
+        this(data, seed, 1.0, 0.99999, 0.3);
+    }
+
+    public SimulatedAnnealing(TimetableData data, long seed, double initialTemperature, double coolingRate,
+                              double swapProbability) {
+        super(data, seed);
+        this.initialTemperature = initialTemperature;
+        this.coolingRate = coolingRate;
+        this.swapProbability = swapProbability;
+        this.temperature = initialTemperature;
+    }
+
+    @Override
+    protected void onReset() {
+        temperature = initialTemperature;
+    }
+
+    @Override
+    protected void step() {
+        int c = pickClass();
+        if (rand.nextDouble() < swapProbability) {
+            int other = rand.nextInt(numClasses);
+            if (other != c && state.getSlot(other) != state.getSlot(c)) {
+                int delta = deltaSwapSlots(c, other);
+                if (accept(delta)) {
+                    swapSlots(c, other, delta);
+                }
+            }
+        } else {
+            int[] rooms = data.getValidRooms(c);
+            int slot = rand.nextInt(numSlots);
+            int room = rooms[rand.nextInt(rooms.length)];
+            int delta = deltaMove(c, slot, room);
+            if (accept(delta)) {
+                move(c, slot, room, delta);
+            }
+        }
+
+        temperature *= coolingRate;
+        if (temperature < MIN_TEMPERATURE) {
+            temperature = initialTemperature;
+        }
+    }
+
+    private boolean accept(int delta) {
+        return delta <= 0 || rand.nextDouble() < Math.exp(-delta / temperature);
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.common.localsearch;
+
+import org.example.common.model.TimetableData;
+
+import java.util.Arrays;
+
+/**
+ * Tabu search: every step takes one class (preferably in conflict), evaluates all its
+ * (slot, room) moves plus a few slot swaps, and makes the best move that is not tabu
+ *
+ * Moving a class out of a slot makes (class, slot) tabu for tenure + random(tenure / 2) steps.
+ * A tabu move is still allowed if it gives a new best (aspiration).
+ */
+public class TabuSearch extends LocalSearch {
+    private final int tenure;
+    private final int swapSamples;
+    private final int[] tabuUntil; // Step until which class c may not return to slot s, at c * numSlots + s
+    private int iteration;
+
+    public TabuSearch(TimetableData data, long seed) {
+        this(data, seed, 10, 8);
+    }
+
+    public TabuSearch(TimetableData data, long seed, int tenure, int swapSamples) {
+        super(data, seed);
+        this.tenure = tenure;
+        this.swapSamples = swapSamples;
+        this.tabuUntil = new int[numClasses * numSlots];
+    }
+
+    @Override
+    protected void onReset() {
+        Arrays.fill(tabuUntil, 0);
+        iteration = 0;
+    }
+
+    @Override
+    protected void step() {
+        iteration++;
+        int c = pickClass();
+        int current = state.getViolations();
+        int bestDelta = Integer.MAX_VALUE;
+        int bestSlot = -1, bestRoom = -1, bestOther = -1;
+        int ties = 0;
+
+        for (int slot = 0; slot < numSlots; slot++) {
+            boolean tabu = isTabu(c, slot);
+            for (int room : data.getValidRooms(c)) {
+                if (slot == state.getSlot(c) && room == state.getRoom(c)) continue;
+                int delta = deltaMove(c, slot, room);
+                if (tabu && current + delta >= getBestViolations()) continue;
+                if (delta < bestDelta || (delta == bestDelta && rand.nextInt(++ties) == 0)) {
+                    if (delta < bestDelta) ties = 1;
+                    bestDelta = delta;
+                    bestSlot = slot;
+                    bestRoom = room;
+                    bestOther = -1;
+                }
+            }
+        }
+
+        for (int i = 0; i < swapSamples; i++) {
+            int other = rand.nextInt(numClasses);
+            if (other == c || state.getSlot(other) == state.getSlot(c)) continue;
+            int delta = deltaSwapSlots(c, other);
+            boolean tabu = isTabu(c, state.getSlot(other)) || isTabu(other, state.getSlot(c));
+            if (tabu && current + delta >= getBestViolations()) continue;
+            if (delta < bestDelta) {
+                bestDelta = delta;
+                bestOther = other;
+            }
+        }
+
+        if (bestDelta == Integer.MAX_VALUE) {
+            return; // Every move of this class is tabu
+        }
+        if (bestOther >= 0) {
+            makeTabu(c, state.getSlot(c));
+            makeTabu(bestOther, state.getSlot(bestOther));
+            swapSlots(c, bestOther, bestDelta);
+        } else {
+            makeTabu(c, state.getSlot(c));
+            move(c, bestSlot, bestRoom, bestDelta);
+        }
+    }
+
+    private boolean isTabu(int classId, int slot) {
+        return tabuUntil[classId * numSlots + slot] > iteration;
+    }
+
+    private void makeTabu(int classId, int slot) {
+        tabuUntil[classId * numSlots + slot] = iteration + tenure + rand.nextInt(tenure / 2 + 1);
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live telemetry for one island
+ *
+ * Updated from the Island hot path, so everything is a lock-free counter or gauge:
+ * the evolve thread never blocks on a JMX reader or the Prometheus dump.
+ */
+public class IslandMetrics implements IslandMetricsMBean {
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder generations = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder migrationsReceived = new LongAdder();
+    private final LongAdder migrationsAccepted = new LongAdder();
+    private final LongAdder migrationNanos = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder duplicatesRejected = new LongAdder();
+    private final LongAdder restartedIndividuals = new LongAdder();
+
+    // Gauges: doubles are stored as raw long bits
+    private final AtomicLong bestFitness = new AtomicLong(-1);
+    private final AtomicLong averageFitnessBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final AtomicLong diversityBits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    public void recordGeneration() {
+        generations.increment();
+    }
+
+    public void recordEvaluations(int count) {
+        evaluations.add(count);
+    }
+
+    /**
+     * Record population statistics after an evaluation pass
+     */
+    public void recordPopulation(int best, double average, double diversity) {
+        bestFitness.set(best);
+        averageFitnessBits.set(Double.doubleToRawLongBits(average));
+        diversityBits.set(Double.doubleToRawLongBits(diversity));
+    }
+
+    /**
+     * Record one incoming migrant and how long the exchange took end to end
+     */
+    public void recordMigration(long latencyNanos, boolean accepted) {
+        migrationsReceived.increment();
+        migrationNanos.add(latencyNanos);
+        if (accepted) {
+            migrationsAccepted.increment();
+        }
+    }
+
+    public void recordCacheLookup(boolean hit) {
+        if (hit) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+    }
+
+    public void recordCacheLookups(long hits, long misses) {
+        cacheHits.add(hits);
+        cacheMisses.add(misses);
+    }
+
+    /**
+     * A child or immigrant identical to an individual already in the population was dropped
+     */
+    public void recordDuplicate() {
+        duplicatesRejected.increment();
+    }
+
+    /**
+     * Individuals replaced by random ones after diversity collapsed
+     */
+    public void recordRestart(int individuals) {
+        restartedIndividuals.add(individuals);
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(
+                (System.nanoTime() - startNanos) / 1e9,
+                generations.sum(),
+                evaluations.sum(),
+                (int) bestFitness.get(),
+                Double.longBitsToDouble(averageFitnessBits.get()),
+                Double.longBitsToDouble(diversityBits.get()),
+                migrationsReceived.sum(),
+                migrationsAccepted.sum(),
+                migrationNanos.sum(),
+                cacheHits.sum(),
+                cacheMisses.sum(),
+                duplicatesRejected.sum(),
+                restartedIndividuals.sum());
+    }
+
+    // ---- IslandMetricsMBean ----
+
+    @Override
+    public long getGenerations() {
+        return generations.sum();
+    }
+
+    @Override
+    public double getGenerationsPerSecond() {
+        return snapshot().getGenerationsPerSecond();
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    @Override
+    public double getEvaluationsPerSecond() {
+        return snapshot().getEvaluationsPerSecond();
+    }
+
+    @Override
+    public int getBestFitness() {
+        return (int) bestFitness.get();
+    }
+
+    @Override
+    public double getAverageFitness() {
+        return Double.longBitsToDouble(averageFitnessBits.get());
+    }
+
+    @Override
+    public double getDiversity() {
+        return Double.longBitsToDouble(diversityBits.get());
+    }
+
+    @Override
+    public long getMigrationsReceived() {
+        return migrationsReceived.sum();
+    }
+
+    @Override
+    public long getMigrationsAccepted() {
+        return migrationsAccepted.sum();
+    }
+
+    @Override
+    public double getMeanMigrationLatencyMillis() {
+        return snapshot().getMeanMigrationLatencyMillis();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        return snapshot().getCacheHitRate();
+    }
+
+    @Override
+    public long getDuplicatesRejected() {
+        return duplicatesRejected.sum();
+    }
+
+    @Override
+    public long getRestartedIndividuals() {
+        return restartedIndividuals.sum();
+    }
+}
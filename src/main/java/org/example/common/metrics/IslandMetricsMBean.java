@@ -0,0 +1,32 @@
+package org.example.common.metrics;
+
+/**
+ * JMX view of one island (standard MBean interface for IslandMetrics)
+ */
+public interface IslandMetricsMBean {
+    long getGenerations();
+
+    double getGenerationsPerSecond();
+
+    long getEvaluations();
+
+    double getEvaluationsPerSecond();
+
+    int getBestFitness();
+
+    double getAverageFitness();
+
+    double getDiversity();
+
+    long getMigrationsReceived();
+
+    long getMigrationsAccepted();
+
+    double getMeanMigrationLatencyMillis();
+
+    double getCacheHitRate();
+
+    long getDuplicatesRejected();
+
+    long getRestartedIndividuals();
+}
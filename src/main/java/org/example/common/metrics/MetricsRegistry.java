@@ -0,0 +1,192 @@
+package org.example.common.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Collects the IslandMetrics of one process (one JVM / one MPI rank)
+ *
+ * Every registered island is exposed as an MBean named
+ * org.example.ga:type=Island,rank=R,island=I (visible in jconsole / VisualVM).
+ * Optionally the metrics are dumped in Prometheus text format to the file given by
+ * -Dga.metrics.prometheusFile, e.g. for the node_exporter textfile collector.
+ */
+public class MetricsRegistry {
+    private static final String PROMETHEUS_FILE_PROPERTY = "ga.metrics.prometheusFile";
+
+    private final int rank;
+    private final List<Integer> islandIds = new ArrayList<>();
+    private final List<IslandMetrics> metrics = new ArrayList<>();
+
+    /**
+     * One labelled snapshot (rank + island id)
+     */
+    public static final class Sample {
+        final int rank;
+        final int island;
+        final MetricsSnapshot snapshot;
+
+        public Sample(int rank, int island, MetricsSnapshot snapshot) {
+            this.rank = rank;
+            this.island = island;
+            this.snapshot = snapshot;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public int getIsland() {
+            return island;
+        }
+
+        public MetricsSnapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    public MetricsRegistry(int rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * Track an island's metrics and publish them over JMX
+     */
+    public synchronized void register(int islandId, IslandMetrics islandMetrics) {
+        metrics.add(islandMetrics);
+        islandIds.add(islandId);
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("org.example.ga:type=Island,rank=" + rank + ",island=" + islandId);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(islandMetrics, name);
+            }
+        } catch (JMException e) {
+            // Telemetry must never stop a solve
+            System.err.println("Could not register JMX metrics for island " + islandId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Current snapshot of every registered island, labelled with rank and island id
+     */
+    public synchronized List<Sample> samples() {
+        List<Sample> samples = new ArrayList<>(metrics.size());
+        for (int i = 0; i < metrics.size(); i++) {
+            samples.add(new Sample(rank, islandIds.get(i), metrics.get(i).snapshot()));
+        }
+        return samples;
+    }
+
+    /**
+     * Combine snapshots: counters are summed, best fitness is the minimum,
+     * average fitness and diversity are averaged, uptime is the maximum
+     */
+    public static MetricsSnapshot aggregate(List<MetricsSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return new MetricsSnapshot(0, 0, 0, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        double uptime = 0;
+        long generations = 0, evaluations = 0, received = 0, accepted = 0, nanos = 0, hits = 0, misses = 0;
+        long duplicates = 0, restarted = 0;
+        int best = Integer.MAX_VALUE;
+        double avgSum = 0, diversitySum = 0;
+
+        for (MetricsSnapshot s : snapshots) {
+            uptime = Math.max(uptime, s.getUptimeSeconds());
+            generations += s.getGenerations();
+            evaluations += s.getEvaluations();
+            received += s.getMigrationsReceived();
+            accepted += s.getMigrationsAccepted();
+            nanos += s.getMigrationNanos();
+            hits += s.getCacheHits();
+            misses += s.getCacheMisses();
+            duplicates += s.getDuplicatesRejected();
+            restarted += s.getRestartedIndividuals();
+            if (s.getBestFitness() >= 0) {
+                best = Math.min(best, s.getBestFitness());
+            }
+            avgSum += s.getAverageFitness();
+            diversitySum += s.getDiversity();
+        }
+
+        return new MetricsSnapshot(uptime, generations, evaluations, best == Integer.MAX_VALUE ? -1 : best,
+                avgSum / snapshots.size(), diversitySum / snapshots.size(), received, accepted, nanos, hits, misses,
+                duplicates, restarted);
+    }
+
+    /**
+     * Dump the given samples to the configured Prometheus file, if any
+     */
+    public static void dumpIfConfigured(List<Sample> samples) {
+        String file = System.getProperty(PROMETHEUS_FILE_PROPERTY);
+        if (file == null || file.isEmpty()) {
+            return;
+        }
+
+        try {
+            writePrometheus(Paths.get(file), samples);
+        } catch (IOException e) {
+            System.err.println("Could not write Prometheus metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write samples in Prometheus text exposition format
+     * The file is written next to the target and moved into place so a scraper never sees half a file
+     */
+    public static void writePrometheus(Path file, List<Sample> samples) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))) {
+            writeMetric(out, samples, "ga_generations_total", "counter", "Generations evolved", MetricsSnapshot::getGenerations);
+            writeMetric(out, samples, "ga_generations_per_second", "gauge", "Generations per second since start", MetricsSnapshot::getGenerationsPerSecond);
+            writeMetric(out, samples, "ga_evaluations_total", "counter", "Fitness evaluations", MetricsSnapshot::getEvaluations);
+            writeMetric(out, samples, "ga_evaluations_per_second", "gauge", "Fitness evaluations per second since start", MetricsSnapshot::getEvaluationsPerSecond);
+            writeMetric(out, samples, "ga_best_fitness", "gauge", "Best fitness (constraint violations)", MetricsSnapshot::getBestFitness);
+            writeMetric(out, samples, "ga_average_fitness", "gauge", "Average population fitness", MetricsSnapshot::getAverageFitness);
+            writeMetric(out, samples, "ga_diversity", "gauge", "Sampled mean Hamming distance between individuals (0-1)", MetricsSnapshot::getDiversity);
+            writeMetric(out, samples, "ga_migrations_received_total", "counter", "Immigrants received", MetricsSnapshot::getMigrationsReceived);
+            writeMetric(out, samples, "ga_migrations_accepted_total", "counter", "Immigrants that replaced an individual", MetricsSnapshot::getMigrationsAccepted);
+            writeMetric(out, samples, "ga_migration_latency_ms", "gauge", "Mean migration latency", MetricsSnapshot::getMeanMigrationLatencyMillis);
+            writeMetric(out, samples, "ga_cache_hit_ratio", "gauge", "Cache hit ratio", MetricsSnapshot::getCacheHitRate);
+            writeMetric(out, samples, "ga_duplicates_rejected_total", "counter", "Children and immigrants dropped as exact duplicates", MetricsSnapshot::getDuplicatesRejected);
+            writeMetric(out, samples, "ga_restarted_individuals_total", "counter", "Individuals reinitialised after diversity collapsed", MetricsSnapshot::getRestartedIndividuals);
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeMetric(PrintWriter out, List<Sample> samples, String name, String type, String help,
+                                    ToDoubleFunction<MetricsSnapshot> value) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " " + type);
+        for (Sample sample : samples) {
+            out.printf(Locale.ROOT, "%s{rank=\"%d\",island=\"%d\"} %s%n",
+                    name, sample.rank, sample.island, formatValue(value.applyAsDouble(sample.snapshot)));
+        }
+    }
+
+    private static String formatValue(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value)
+                ? String.valueOf((long) value)
+                : String.format(Locale.ROOT, "%.6f", value);
+    }
+}
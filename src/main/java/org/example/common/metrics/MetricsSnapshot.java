@@ -0,0 +1,66 @@
+package org.example.common.metrics;
+
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * Point-in-time copy of one island's metrics
+ * Flattened to a double[] so MPI ranks can gather them to rank 0
+ */
+@Value
+public class MetricsSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int NUM_FIELDS = 13;
+
+    double uptimeSeconds;
+    long generations;
+    long evaluations;
+    int bestFitness;
+    double averageFitness;
+    double diversity;
+    long migrationsReceived;
+    long migrationsAccepted;
+    long migrationNanos;
+    long cacheHits;
+    long cacheMisses;
+    long duplicatesRejected;
+    long restartedIndividuals;
+
+    /**
+     * Flatten for MPI transfer
+     */
+    public double[] toArray() {
+        return new double[]{uptimeSeconds, generations, evaluations, bestFitness, averageFitness, diversity,
+                migrationsReceived, migrationsAccepted, migrationNanos, cacheHits, cacheMisses, duplicatesRejected,
+                restartedIndividuals};
+    }
+
+    /**
+     * Rebuild a snapshot from NUM_FIELDS doubles starting at offset
+     */
+    public static MetricsSnapshot fromArray(double[] values, int offset) {
+        return new MetricsSnapshot(values[offset], (long) values[offset + 1], (long) values[offset + 2],
+                (int) values[offset + 3], values[offset + 4], values[offset + 5], (long) values[offset + 6],
+                (long) values[offset + 7], (long) values[offset + 8], (long) values[offset + 9], (long) values[offset + 10],
+                (long) values[offset + 11], (long) values[offset + 12]);
+    }
+
+    public double getGenerationsPerSecond() {
+        return uptimeSeconds > 0 ? generations / uptimeSeconds : 0;
+    }
+
+    public double getEvaluationsPerSecond() {
+        return uptimeSeconds > 0 ? evaluations / uptimeSeconds : 0;
+    }
+
+    public double getMeanMigrationLatencyMillis() {
+        return migrationsReceived > 0 ? migrationNanos / 1e6 / migrationsReceived : 0;
+    }
+
+    public double getCacheHitRate() {
+        long lookups = cacheHits + cacheMisses;
+        return lookups > 0 ? (double) cacheHits / lookups : 0;
+    }
+}
@@ -1,11 +1,16 @@
 package org.example.common.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.example.common.constraints.ConstraintKernel;
+import org.example.common.constraints.ConstraintModel;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -23,6 +28,11 @@ public class TimetableData implements Serializable {
     private final int numStudentGroups;
     private final int daysPerWeek = 5;
     private final int hoursPerDay = 8;
+    @Getter(AccessLevel.NONE)
+    private transient volatile int[][] validRooms; // Room domain per class, computed on first use
+    private ConstraintModel constraints = ConstraintModel.none(); // Extra constraints (availability, features, ...)
+    @Getter(AccessLevel.NONE)
+    private transient volatile ConstraintKernel kernel; // Compiled constraints, built on first use
 
     /**
      * Generate a random problem instance
@@ -57,6 +67,61 @@ public class TimetableData implements Serializable {
         return daysPerWeek * hoursPerDay;
     }
 
+    /**
+     * Content hash of the instance and its extra constraints, used to check that saved state
+     * (whose fitness depends on both) belongs to this problem
+     */
+    public int fingerprint() {
+        int hash = 31 * classes.hashCode() + rooms.hashCode();
+        return constraints.isEmpty() ? hash : 31 * hash + constraints.fingerprint();
+    }
+
+    /**
+     * Room domain of a class: the rooms large enough for it and with the features it requires
+     * If no room has both, the rooms with the fewest room violations are returned
+     * (computed per class profile from the kernel's room-penalty table)
+     */
+    public int[] getValidRooms(int classId) {
+        int[][] domains = validRooms;
+        if (domains == null) {
+            ConstraintKernel compiled = getKernel();
+            Map<Integer, int[]> byProfile = new HashMap<>();
+            domains = new int[classes.size()][];
+            for (SchoolClass cls : classes) {
+                domains[cls.getId()] = byProfile.computeIfAbsent(compiled.getClassProfile(cls.getId()), profile -> {
+                    int fewest = rooms.stream().mapToInt(room -> compiled.roomPenalty(profile, room.getId())).min().orElse(0);
+                    return rooms.stream()
+                            .filter(room -> compiled.roomPenalty(profile, room.getId()) == fewest)
+                            .mapToInt(Room::getId)
+                            .toArray();
+                });
+            }
+            validRooms = domains;
+        }
+        return domains[classId];
+    }
+
+    /**
+     * Same instance with the given extra constraints
+     */
+    public TimetableData withConstraints(ConstraintModel model) {
+        TimetableData copy = new TimetableData(classes, rooms, numTeachers, numStudentGroups);
+        copy.constraints = model;
+        return copy;
+    }
+
+    /**
+     * Compiled constraint tables used by fitness evaluation
+     */
+    public ConstraintKernel getKernel() {
+        ConstraintKernel compiled = kernel;
+        if (compiled == null) {
+            compiled = ConstraintKernel.compile(this);
+            kernel = compiled;
+        }
+        return compiled;
+    }
+
     public SchoolClass getClass(int id) {
         return classes.get(id);
     }
@@ -0,0 +1,96 @@
+package org.example.common.portfolio;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * GA parameters of one island group in a portfolio race
+ *
+ * A portfolio is written as configurations separated by ';', each a list of key=value pairs
+ * (keys: name, pop, mut, cross, elite, mig); missing keys are taken from the base configuration:
+ *   pop=50,mut=0.2,elite=2,mig=20;pop=200,mut=0.05,elite=10,mig=100
+ * "default" stands for the four configurations of around(base).
+ */
+@Value
+public class PortfolioConfig {
+    String name;
+    int populationSize;
+    double mutationRate;
+    double crossoverRate;
+    int eliteCount;
+    int migrationInterval;
+
+    /**
+     * Parse a portfolio specification (see class comment)
+     */
+    public static List<PortfolioConfig> parse(String spec, PortfolioConfig base) {
+        if (spec.isBlank() || spec.trim().equalsIgnoreCase("default")) {
+            return around(base);
+        }
+
+        List<PortfolioConfig> configs = new ArrayList<>();
+        for (String part : spec.split(";")) {
+            if (part.isBlank()) continue;
+            String name = "c" + configs.size();
+            int populationSize = base.populationSize;
+            double mutationRate = base.mutationRate;
+            double crossoverRate = base.crossoverRate;
+            int eliteCount = base.eliteCount;
+            int migrationInterval = base.migrationInterval;
+
+            for (String pair : part.split(",")) {
+                String[] keyValue = pair.split("=", 2);
+                if (keyValue.length != 2) {
+                    throw new IllegalArgumentException("Expected key=value in portfolio configuration: " + pair);
+                }
+                String value = keyValue[1].trim();
+                switch (keyValue[0].trim().toLowerCase(Locale.ROOT)) {
+                    case "name": name = value; break;
+                    case "pop": populationSize = Integer.parseInt(value); break;
+                    case "mut": mutationRate = Double.parseDouble(value); break;
+                    case "cross": crossoverRate = Double.parseDouble(value); break;
+                    case "elite": eliteCount = Integer.parseInt(value); break;
+                    case "mig": migrationInterval = Integer.parseInt(value); break;
+                    default:
+                        throw new IllegalArgumentException("Unknown portfolio key: " + keyValue[0]);
+                }
+            }
+            if (eliteCount >= populationSize) {
+                throw new IllegalArgumentException("Elite count must be below the population size in " + part);
+            }
+            configs.add(new PortfolioConfig(name, populationSize, mutationRate, crossoverRate, eliteCount,
+                    Math.max(1, migrationInterval)));
+        }
+        return configs;
+    }
+
+    /**
+     * Base configuration plus a more explorative, a more exploitative and a larger-population variant
+     */
+    public static List<PortfolioConfig> around(PortfolioConfig base) {
+        int pop = base.populationSize;
+        return List.of(
+                base.named("base"),
+                new PortfolioConfig("explore", pop, Math.min(1.0, base.mutationRate * 2), base.crossoverRate,
+                        Math.max(1, base.eliteCount / 2), Math.max(1, base.migrationInterval / 2)),
+                new PortfolioConfig("exploit", pop, base.mutationRate / 2, base.crossoverRate,
+                        Math.min(pop / 4, base.eliteCount * 2), base.migrationInterval * 2),
+                new PortfolioConfig("large", pop * 2, base.mutationRate, base.crossoverRate,
+                        base.eliteCount * 2, base.migrationInterval));
+    }
+
+    public PortfolioConfig named(String newName) {
+        return new PortfolioConfig(newName, populationSize, mutationRate, crossoverRate, eliteCount, migrationInterval);
+    }
+
+    /**
+     * Short form for logs, in the syntax of parse
+     */
+    public String describe() {
+        return String.format(Locale.ROOT, "%s(pop=%d,mut=%.3g,cross=%.2f,elite=%d,mig=%d)",
+                name, populationSize, mutationRate, crossoverRate, eliteCount, migrationInterval);
+    }
+}
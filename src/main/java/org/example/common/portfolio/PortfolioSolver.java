@@ -0,0 +1,332 @@
+package org.example.common.portfolio;
+
+import org.example.common.ga.DiversityPolicy;
+import org.example.common.ga.Individual;
+import org.example.common.ga.Island;
+import org.example.common.ga.RoomMatcher;
+import org.example.common.metrics.MetricsRegistry;
+import org.example.common.model.TimetableData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Races several GA configurations on the same instance and keeps the ones that work
+ *
+ * Every configuration runs as a group of islands. The race advances in epochs: in one epoch every
+ * island does the same number of fitness evaluations (so a small population gets more generations
+ * than a large one), then each group migrates along its own ring when its migration interval is
+ * due, and the portfolio's best individual is offered to one island of every other group.
+ *
+ * After warmupEpochs, a group whose best fitness has been worse than the leader's for patience
+ * consecutive epochs is cancelled (at most one per epoch, never the last one). Its island slots go
+ * to the leader: each becomes a new island with the leader's configuration, seeded with the
+ * leader's best individuals and the cancelled group's best, so the thread pool stays saturated and
+ * the leader gets a larger share of it.
+ */
+public class PortfolioSolver {
+    private final TimetableData data;
+    private final RoomMatcher roomMatcher;
+    private final DiversityPolicy diversity;
+    private final MetricsRegistry metrics;
+    private final long seed;
+    private final int warmupEpochs;
+    private final int patience;
+    private final List<Group> groups = new ArrayList<>();
+    private int nextIslandId;
+    private int epoch;
+
+    /**
+     * Split totalIslands over the configurations (at least one island each); islands are
+     * registered with metrics (if not null) and get the diversity policy (if not null)
+     */
+    public PortfolioSolver(TimetableData data, List<PortfolioConfig> configs, int totalIslands, long seed,
+                           RoomMatcher roomMatcher, DiversityPolicy diversity, MetricsRegistry metrics,
+                           int warmupEpochs, int patience) {
+        if (configs.isEmpty()) {
+            throw new IllegalArgumentException("Portfolio without configurations");
+        }
+        this.data = data;
+        this.roomMatcher = roomMatcher;
+        this.diversity = diversity;
+        this.metrics = metrics;
+        this.seed = seed;
+        this.warmupEpochs = warmupEpochs;
+        this.patience = patience;
+
+        for (int g = 0; g < configs.size(); g++) {
+            Group group = new Group(configs.get(g));
+            int count = Math.max(1, totalIslands / configs.size() + (g < totalIslands % configs.size() ? 1 : 0));
+            for (int i = 0; i < count; i++) {
+                group.islands.add(newIsland(group.config));
+            }
+            groups.add(group);
+        }
+    }
+
+    private Island newIsland(PortfolioConfig config) {
+        int id = nextIslandId++;
+        Island island = new Island(data, config.getPopulationSize(), config.getMutationRate(), config.getCrossoverRate(),
+                config.getEliteCount(), seed + id * 1000L, roomMatcher);
+        island.setDiversityPolicy(diversity);
+        if (metrics != null) {
+            metrics.register(id, island.getMetrics());
+        }
+        return island;
+    }
+
+    /**
+     * Race until a fitness accepted by isOptimal is found or maxEvaluations (all islands together)
+     * are spent; epochEvaluations is the budget of one epoch, shared equally by the live islands.
+     * onEpoch is called after every epoch (progress reports). Returns the best individual found.
+     */
+    public Individual run(ExecutorService executor, long epochEvaluations, long maxEvaluations, IntPredicate isOptimal,
+                          Consumer<PortfolioSolver> onEpoch) throws InterruptedException {
+        AtomicBoolean optimal = new AtomicBoolean(isOptimal.test(getBest().getFitness()));
+
+        while (!optimal.get() && getEvaluations() < maxEvaluations) {
+            List<Island> live = getLiveIslands();
+            long budget = Math.max(1, Math.min(epochEvaluations, maxEvaluations - getEvaluations()) / live.size());
+
+            List<Callable<Void>> tasks = new ArrayList<>(live.size());
+            for (Island island : live) {
+                tasks.add(() -> {
+                    long target = island.getEvaluations() + budget;
+                    while (island.getEvaluations() < target && !optimal.get()) {
+                        island.evolve();
+                        if (isOptimal.test(island.getBest().getFitness())) {
+                            optimal.set(true);
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Island failed", e.getCause());
+                }
+            }
+            epoch++;
+
+            for (Group group : groups) {
+                if (!group.isCancelled()) {
+                    group.migrateIfDue();
+                    group.trajectory.add(group.getBest().getFitness());
+                }
+            }
+            // Race before sharing: right after it, a laggard's best is usually the leader's
+            race();
+            shareLeaderBest();
+            onEpoch.accept(this);
+        }
+        return getBest();
+    }
+
+    /**
+     * Offer the portfolio's best individual to one island (in turn) of every other live group
+     */
+    private void shareLeaderBest() {
+        Group leader = getLeader();
+        long captureStart = System.nanoTime();
+        List<Individual> candidates = leader.getBestIsland().getMigrantCandidates();
+        long captureNanos = System.nanoTime() - captureStart;
+        for (Group group : groups) {
+            if (group == leader || group.isCancelled()) continue;
+            Island destination = group.islands.get(epoch % group.islands.size());
+            long start = System.nanoTime();
+            boolean accepted = destination.receiveImmigrant(destination.selectImmigrant(candidates));
+            destination.getMetrics().recordMigration(captureNanos + System.nanoTime() - start, accepted);
+        }
+    }
+
+    /**
+     * Update the lagging streaks and cancel the worst laggard, if one has lagged for long enough
+     */
+    private void race() {
+        Group leader = getLeader();
+        int leaderBest = leader.getBest().getFitness();
+        Group worst = null;
+        for (Group group : groups) {
+            if (group.isCancelled()) continue;
+            if (epoch <= warmupEpochs) continue;
+            group.lagging = group.getBest().getFitness() > leaderBest ? group.lagging + 1 : 0;
+            if (group.lagging >= patience
+                    && (worst == null || group.getBest().getFitness() > worst.getBest().getFitness())) {
+                worst = group;
+            }
+        }
+        if (worst != null && liveGroups() > 1) {
+            cancel(worst, leader);
+        }
+    }
+
+    private void cancel(Group group, Group leader) {
+        group.cancelledAtEpoch = epoch;
+        List<Individual> seeds = new ArrayList<>();
+        seeds.add(group.getBest().copy());
+        for (Island island : leader.islands) {
+            seeds.addAll(island.getMigrantCandidates(2));
+        }
+        for (int i = 0; i < group.islands.size(); i++) {
+            Island island = newIsland(leader.config);
+            island.seedPopulation(seeds);
+            leader.islands.add(island);
+        }
+    }
+
+    /**
+     * Islands of the groups still racing (a cancellation replaces a group's islands by new ones, so
+     * other threads should ask again rather than keep the list)
+     */
+    public List<Island> getLiveIslands() {
+        List<Island> islands = new ArrayList<>();
+        for (Group group : groups) {
+            if (!group.isCancelled()) {
+                islands.addAll(group.islands);
+            }
+        }
+        return islands;
+    }
+
+    private int liveGroups() {
+        return (int) groups.stream().filter(group -> !group.isCancelled()).count();
+    }
+
+    /**
+     * Live group with the best individual (earlier groups win ties)
+     */
+    public Group getLeader() {
+        Group leader = null;
+        for (Group group : groups) {
+            if (!group.isCancelled() && (leader == null || group.getBest().getFitness() < leader.getBest().getFitness())) {
+                leader = group;
+            }
+        }
+        return leader;
+    }
+
+    public Individual getBest() {
+        return getLeader().getBest();
+    }
+
+    public List<Group> getGroups() {
+        return Collections.unmodifiableList(groups);
+    }
+
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Evaluations of all islands, cancelled ones included
+     */
+    public long getEvaluations() {
+        long total = 0;
+        for (Group group : groups) {
+            for (Island island : group.islands) {
+                total += island.getEvaluations();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Generations of the most advanced island
+     */
+    public int getGenerations() {
+        return groups.stream().flatMap(group -> group.islands.stream()).mapToInt(Island::getGeneration).max().orElse(0);
+    }
+
+    /**
+     * One configuration in the race: its islands, best fitness per epoch and whether it was cancelled
+     */
+    public static final class Group {
+        private final PortfolioConfig config;
+        // Copy-on-write: local search threads read the islands while the race adds new ones
+        private final List<Island> islands = new CopyOnWriteArrayList<>();
+        private final List<Integer> trajectory = new ArrayList<>();
+        private volatile int cancelledAtEpoch = -1;
+        private int lagging; // Consecutive epochs behind the leader
+        private int lastMigration;
+
+        Group(PortfolioConfig config) {
+            this.config = config;
+        }
+
+        /**
+         * Ring migration inside the group, every migrationInterval generations of its first island
+         */
+        private void migrateIfDue() {
+            int generation = islands.get(0).getGeneration();
+            if (islands.size() < 2 || generation - lastMigration < config.getMigrationInterval()) {
+                return;
+            }
+            lastMigration = generation;
+            List<List<Individual>> migrants = new ArrayList<>(islands.size());
+            long[] captureNanos = new long[islands.size()];
+            for (int i = 0; i < islands.size(); i++) {
+                long start = System.nanoTime();
+                migrants.add(islands.get(i).getMigrantCandidates());
+                captureNanos[i] = System.nanoTime() - start;
+            }
+            for (int i = 0; i < islands.size(); i++) {
+                long start = System.nanoTime();
+                Island destination = islands.get((i + 1) % islands.size());
+                boolean accepted = destination.receiveImmigrant(destination.selectImmigrant(migrants.get(i)));
+                destination.getMetrics().recordMigration(captureNanos[i] + System.nanoTime() - start, accepted);
+            }
+        }
+
+        public Individual getBest() {
+            return getBestIsland().getBest();
+        }
+
+        Island getBestIsland() {
+            Island best = islands.get(0);
+            for (Island island : islands) {
+                if (island.getBest().getFitness() < best.getBest().getFitness()) {
+                    best = island;
+                }
+            }
+            return best;
+        }
+
+        public PortfolioConfig getConfig() {
+            return config;
+        }
+
+        public List<Island> getIslands() {
+            return Collections.unmodifiableList(islands);
+        }
+
+        public int getNumIslands() {
+            return islands.size();
+        }
+
+        /**
+         * Best fitness of the group after each epoch it ran
+         */
+        public List<Integer> getTrajectory() {
+            return Collections.unmodifiableList(trajectory);
+        }
+
+        public boolean isCancelled() {
+            return cancelledAtEpoch >= 0;
+        }
+
+        public int getCancelledAtEpoch() {
+            return cancelledAtEpoch;
+        }
+    }
+}
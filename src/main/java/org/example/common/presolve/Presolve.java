@@ -0,0 +1,122 @@
+package org.example.common.presolve;
+
+import lombok.Value;
+import org.example.common.constraints.ConstraintModel;
+import org.example.common.model.Room;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+
+import java.util.Arrays;
+
+/**
+ * Presolve analysis: a proven lower bound on the violations of any timetable for an instance
+ *
+ * - Teacher: a teacher with n classes and S available slots has at least n - S violations
+ *   (each extra class is a teacher conflict or lands in an unavailable slot)
+ * - Group:   same for student groups
+ * - Capacity band: the n_c classes needing at least c seats can use at most S * r_c
+ *   (slot, room) pairs without a room conflict, r_c = rooms with capacity >= c.
+ *   Every class beyond that is a room conflict or a capacity violation. This includes classes
+ *   larger than every room (r_c = 0).
+ *
+ * The three bounds count different constraint types, so their sum is a lower bound too.
+ * Islands stop as soon as the best fitness reaches it: nothing better exists.
+ *
+ * Room domains (rooms large enough for each class, with the features it requires) are provided by
+ * TimetableData.getValidRooms; a class with a single valid room has its room fixed.
+ */
+@Value
+public class Presolve {
+    int teacherBound;
+    int groupBound;
+    int capacityBound;
+    int overloadedTeachers;
+    int overbookedGroups;
+    int unplaceableClasses;   // larger than every room
+    int forcedRooms;          // classes with exactly one valid room
+    double averageRoomDomain;
+
+    public static Presolve analyze(TimetableData data) {
+        int slots = data.getTotalTimeSlots();
+
+        int[] classesPerTeacher = new int[data.getNumTeachers()];
+        int[] classesPerGroup = new int[data.getNumStudentGroups()];
+        for (SchoolClass cls : data.getClasses()) {
+            classesPerTeacher[cls.getTeacherId()]++;
+            classesPerGroup[cls.getStudentGroup()]++;
+        }
+
+        ConstraintModel constraints = data.getConstraints();
+        int teacherBound = 0, overloadedTeachers = 0;
+        for (int t = 0; t < classesPerTeacher.length; t++) {
+            int n = classesPerTeacher[t];
+            int available = slots - Long.bitCount(constraints.getTeacherUnavailableSlots(t));
+            if (n > available) {
+                teacherBound += n - available;
+                overloadedTeachers++;
+            }
+        }
+        int groupBound = 0, overbookedGroups = 0;
+        for (int n : classesPerGroup) {
+            if (n > slots) {
+                groupBound += n - slots;
+                overbookedGroups++;
+            }
+        }
+
+        // Capacity bands: walk required capacities from largest to smallest
+        int[] required = data.getClasses().stream().mapToInt(SchoolClass::getRequiredCapacity).sorted().toArray();
+        int[] capacities = data.getRooms().stream().mapToInt(Room::getCapacity).sorted().toArray();
+        int capacityBound = 0;
+        int roomIndex = capacities.length;
+        for (int i = required.length - 1; i >= 0; i--) {
+            if (i > 0 && required[i - 1] == required[i]) continue; // evaluate each band once, at its smallest index
+            int c = required[i];
+            int classesAtLeast = required.length - i;
+            while (roomIndex > 0 && capacities[roomIndex - 1] >= c) {
+                roomIndex--;
+            }
+            int roomsAtLeast = capacities.length - roomIndex;
+            capacityBound = Math.max(capacityBound, classesAtLeast - slots * roomsAtLeast);
+        }
+
+        int maxCapacity = capacities.length == 0 ? 0 : capacities[capacities.length - 1];
+        int unplaceable = (int) Arrays.stream(required).filter(r -> r > maxCapacity).count();
+
+        int forcedRooms = 0;
+        long domainTotal = 0;
+        for (SchoolClass cls : data.getClasses()) {
+            int[] domain = data.getValidRooms(cls.getId());
+            domainTotal += domain.length;
+            if (domain.length == 1) {
+                forcedRooms++;
+            }
+        }
+        double averageDomain = data.getClasses().isEmpty() ? 0 : (double) domainTotal / data.getClasses().size();
+
+        return new Presolve(teacherBound, groupBound, capacityBound, overloadedTeachers, overbookedGroups,
+                unplaceable, forcedRooms, averageDomain);
+    }
+
+    /**
+     * Proven minimum number of violations
+     */
+    public int getLowerBound() {
+        return teacherBound + groupBound + capacityBound;
+    }
+
+    /**
+     * True if no timetable can do better than this fitness
+     */
+    public boolean isOptimal(int fitness) {
+        return fitness <= getLowerBound();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Presolve{lowerBound=%d (teacher=%d, group=%d, capacity=%d), overloadedTeachers=%d, "
+                        + "overbookedGroups=%d, unplaceableClasses=%d, forcedRooms=%d, avgRoomDomain=%.1f}",
+                getLowerBound(), teacherBound, groupBound, capacityBound, overloadedTeachers, overbookedGroups,
+                unplaceableClasses, forcedRooms, averageRoomDomain);
+    }
+}
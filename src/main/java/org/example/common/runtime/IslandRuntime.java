@@ -0,0 +1,173 @@
+package org.example.common.runtime;
+
+import org.example.common.ga.Individual;
+import org.example.common.ga.Island;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Runs every island as its own (virtual) thread, for models with thousands of small islands
+ *
+ * Islands do not synchronise per generation: each one loops evolve -> send its migration candidates
+ * to the next island's Mailbox every migrationInterval generations -> take whatever is in its own mailbox
+ * (-> hand itself to the checkpoint callback every checkpointInterval generations, on its own thread).
+ * The runtime is a scope: start() forks one task per island, join() waits for all of them and
+ * close() stops and reaps them, so no island outlives the try-with-resources block; the first
+ * failure or an optimal solution stops all islands.
+ *
+ * Virtual threads need JDK 21+, while the project targets 17: the virtual-thread executor is looked
+ * up reflectively and, if missing, every island gets a platform thread instead (same behaviour,
+ * more memory per island).
+ */
+public final class IslandRuntime implements AutoCloseable {
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private CountDownLatch running = new CountDownLatch(0);
+
+    private IslandRuntime(ExecutorService executor, boolean virtual) {
+        this.executor = executor;
+        this.virtual = virtual;
+    }
+
+    /**
+     * Runtime on virtual threads if the JVM has them, else on one platform thread per island
+     */
+    public static IslandRuntime open() {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return new IslandRuntime((ExecutorService) VIRTUAL_EXECUTOR.invoke(null), true);
+            } catch (ReflectiveOperationException e) {
+                // fall through to platform threads
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return new IslandRuntime(Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "island-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }), false);
+    }
+
+    private static Method findVirtualExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Fork one task per island; islands migrate along a ring through mailboxes and stop at
+     * maxGenerations, or all together once one of them reaches a fitness accepted by isOptimal
+     */
+    public void start(List<Island> islands, int maxGenerations, int migrationInterval, IntPredicate isOptimal) {
+        start(islands, maxGenerations, migrationInterval, isOptimal, 0, index -> { });
+    }
+
+    /**
+     * Same, and every island calls checkpoint with its index every checkpointInterval generations
+     * (0 = never) between two generations, so the callback can capture its state consistently
+     */
+    public void start(List<Island> islands, int maxGenerations, int migrationInterval, IntPredicate isOptimal,
+                      int checkpointInterval, IntConsumer checkpoint) {
+        Mailbox[] inboxes = new Mailbox[islands.size()];
+        for (int i = 0; i < inboxes.length; i++) {
+            inboxes[i] = new Mailbox();
+        }
+        running = new CountDownLatch(islands.size());
+
+        for (int i = 0; i < islands.size(); i++) {
+            int index = i;
+            Island island = islands.get(i);
+            Mailbox inbox = inboxes[i];
+            Mailbox outbox = inboxes[(i + 1) % inboxes.length];
+            executor.execute(() -> {
+                try {
+                    runIsland(island, inbox, outbox, maxGenerations, migrationInterval, isOptimal,
+                            checkpointInterval, () -> checkpoint.accept(index));
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    stop.set(true);
+                } finally {
+                    running.countDown();
+                }
+            });
+        }
+    }
+
+    private void runIsland(Island island, Mailbox inbox, Mailbox outbox, int maxGenerations, int migrationInterval,
+                           IntPredicate isOptimal, int checkpointInterval, Runnable checkpoint) {
+        while (!stop.get() && island.getGeneration() < maxGenerations) {
+            island.evolve();
+
+            if (island.getGeneration() % migrationInterval == 0) {
+                long start = System.nanoTime();
+                List<Individual> candidates = island.getMigrantCandidates();
+                outbox.send(candidates, System.nanoTime() - start);
+            }
+            Mailbox.Message message = inbox.receive();
+            if (message != null) {
+                // Latency = the sender capturing the candidates + selecting and integrating one here
+                long start = System.nanoTime();
+                boolean accepted = island.receiveImmigrant(island.selectImmigrant(message.candidates));
+                island.getMetrics().recordMigration(message.captureNanos + System.nanoTime() - start, accepted);
+            }
+
+            if (checkpointInterval > 0 && island.getGeneration() % checkpointInterval == 0) {
+                checkpoint.run();
+            }
+            if (isOptimal.test(island.getBest().getFitness())) {
+                stop.set(true);
+            }
+            // Virtual threads are not time-sliced: give the carrier to the next island every generation
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Wait until every island has finished, calling report every reportMillis meanwhile;
+     * rethrows the first failure of an island
+     */
+    public void join(long reportMillis, Runnable report) throws InterruptedException, ExecutionException {
+        while (!running.await(reportMillis, TimeUnit.MILLISECONDS)) {
+            report.run();
+        }
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new ExecutionException("Island failed", error);
+        }
+    }
+
+    /**
+     * Ask every island to stop after its current generation
+     */
+    public void stop() {
+        stop.set(true);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        stop.set(true);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+}
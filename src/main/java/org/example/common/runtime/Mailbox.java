@@ -0,0 +1,41 @@
+package org.example.common.runtime;
+
+import org.example.common.ga.Individual;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One-slot channel between two islands: the sender overwrites, the receiver takes
+ *
+ * A message is the sender's migration candidates; the receiver picks the immigrant among them.
+ * Neither side ever blocks or locks, so an island never waits for a slower neighbour
+ * (candidates that were not picked up in time are replaced by newer ones).
+ */
+public final class Mailbox {
+    private final AtomicReference<Message> slot = new AtomicReference<>();
+
+    /**
+     * Candidates plus the time the sender took to capture them (part of the migration latency)
+     */
+    public static final class Message {
+        final List<Individual> candidates;
+        final long captureNanos;
+
+        Message(List<Individual> candidates, long captureNanos) {
+            this.candidates = candidates;
+            this.captureNanos = captureNanos;
+        }
+    }
+
+    public void send(List<Individual> candidates, long captureNanos) {
+        slot.set(new Message(candidates, captureNanos));
+    }
+
+    /**
+     * Latest message sent since the last call, or null
+     */
+    public Message receive() {
+        return slot.getAndSet(null);
+    }
+}
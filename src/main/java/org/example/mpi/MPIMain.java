@@ -1,11 +1,35 @@
 package org.example.mpi;
 
 import mpi.MPI;
+import org.example.common.checkpoint.CheckpointWriter;
+import org.example.common.constraints.ConstraintModel;
+import org.example.common.decomposition.Decomposition;
+import org.example.common.export.TimetableExport;
+import org.example.common.export.TimetableIndex;
+import org.example.common.ga.DiversityPolicy;
 import org.example.common.ga.Individual;
 import org.example.common.ga.Island;
+import org.example.common.ga.RoomMatcher;
+import org.example.common.incremental.ProblemDelta;
+import org.example.common.incremental.SolutionFile;
+import org.example.common.incremental.WarmStart;
+import org.example.common.instance.BinaryInstanceFormat;
+import org.example.common.instance.InstanceLoader;
+import org.example.common.localsearch.LocalSearch;
+import org.example.common.localsearch.LocalSearchWorker;
+import org.example.common.metrics.MetricsRegistry;
+import org.example.common.metrics.MetricsSnapshot;
 import org.example.common.model.Gene;
 import org.example.common.model.TimeSlot;
 import org.example.common.model.TimetableData;
+import org.example.common.presolve.Presolve;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * MPI-based distributed genetic algorithm for timetable scheduling
@@ -19,22 +43,63 @@ import org.example.common.model.TimetableData;
 public class MPIMain {
     private static final int TAG_MIGRATE_FITNESS = 1;
     private static final int TAG_MIGRATE_GENES = 2;
-
-    // GA Parameters
-    private static final int POPULATION_SIZE = 100;
-    private static final double MUTATION_RATE = 0.1;
-    private static final double CROSSOVER_RATE = 0.8;
-    private static final int ELITE_COUNT = 5;
-    private static final int MAX_GENERATIONS = 1000;
-    private static final int MIGRATION_INTERVAL = 50; // Migrate every N generations
+    private static final int TAG_FINAL_BEST = 3;
+
+    // GA Parameters (overridable with -Dga.<name>=<value>, see ScalingBenchmark)
+    private static final int POPULATION_SIZE = Integer.getInteger("ga.populationSize", 100);
+    private static final double MUTATION_RATE = Double.parseDouble(System.getProperty("ga.mutationRate", "0.1"));
+    private static final double CROSSOVER_RATE = Double.parseDouble(System.getProperty("ga.crossoverRate", "0.8"));
+    private static final int ELITE_COUNT = Integer.getInteger("ga.eliteCount", 5);
+    private static final int MAX_GENERATIONS = Integer.getInteger("ga.maxGenerations", 1000);
+    private static final int MIGRATION_INTERVAL = Integer.getInteger("ga.migrationInterval", 50); // Migrate every N generations
+    private static final int REPORT_INTERVAL = Integer.getInteger("ga.reportInterval", 50); // Reduce + print every N generations
+    private static final long SEED = Long.getLong("ga.seed", 12345L);
+    private static final boolean ROOM_DECODER = Boolean.getBoolean("ga.roomDecoder"); // Slot-only genome, rooms by matching
+
+    // Diversity control: duplicate rejection, restarts below a diversity threshold, distant immigrants (-Dga.diversity=true)
+    private static final DiversityPolicy DIVERSITY = Boolean.getBoolean("ga.diversity")
+            ? new DiversityPolicy(Double.parseDouble(System.getProperty("ga.diversityThreshold", "0.05")),
+                    Double.parseDouble(System.getProperty("ga.restartFraction", "0.3")), 8,
+                    Integer.getInteger("ga.migrantCandidates", 4))
+            : null;
+
+    // Checkpointing: enabled by -Dga.checkpointDir, resume with -Dga.resume=true (one shard per rank)
+    private static final String CHECKPOINT_DIR = System.getProperty("ga.checkpointDir");
+    private static final int CHECKPOINT_INTERVAL = Integer.getInteger("ga.checkpointInterval", 100);
+    private static final boolean RESUME = Boolean.getBoolean("ga.resume");
 
     // Problem parameters
-    private static final int NUM_CLASSES = 40;
-    private static final int NUM_ROOMS = 8;
-    private static final int NUM_TEACHERS = 10;
-    private static final int NUM_GROUPS = 6;
-
-    public static void main(String[] args) throws mpi.MPIException {
+    private static final int NUM_CLASSES = Integer.getInteger("ga.classes", 40);
+    private static final int NUM_ROOMS = Integer.getInteger("ga.rooms", 8);
+    private static final int NUM_TEACHERS = Integer.getInteger("ga.teachers", 10);
+    private static final int NUM_GROUPS = Integer.getInteger("ga.groups", 6);
+    private static final long INSTANCE_SEED = Long.getLong("ga.instanceSeed", 42L);
+    private static final String INSTANCE_PATH = System.getProperty("ga.instance"); // CSV directory or .tti file
+    private static final String CONSTRAINTS_PATH = System.getProperty("ga.constraints"); // Extra constraints, see ConstraintModel
+
+    // Incremental re-optimisation: start from -Dga.warmStart=<solution.csv>, optionally changed by -Dga.delta=<delta.txt>
+    private static final String WARM_START_PATH = System.getProperty("ga.warmStart");
+    private static final String DELTA_PATH = System.getProperty("ga.delta");
+    private static final int FOCUS_GENERATIONS = Integer.getInteger("ga.focusGenerations", 100);
+    private static final String SOLUTION_OUT = System.getProperty("ga.solutionOut");
+    // Timetable export: -Dga.export=out.json,out.ics (format from the extension), -Dga.exportView=slot|teacher|group|room
+    private static final String EXPORT_FILES = System.getProperty("ga.export");
+    private static final TimetableIndex.View EXPORT_VIEW = TimetableIndex.View.valueOf(System.getProperty("ga.exportView", "slot").toUpperCase(Locale.ROOT));
+
+    // Decomposition: ranks solve clusters of the conflict graph round-robin first (-Dga.decompose=true)
+    private static final boolean DECOMPOSE = Boolean.getBoolean("ga.decompose");
+    private static final int CLUSTER_SIZE = Integer.getInteger("ga.clusterSize", 200);
+    private static final int CLUSTER_GENERATIONS = Integer.getInteger("ga.clusterGenerations", 300);
+
+    // Hybrid: the last ga.localSearchRanks ranks (never rank 0) polish their island's best with
+    // local search instead of evolving it (-Dga.localSearch=sa|tabu)
+    private static final String LOCAL_SEARCH = System.getProperty("ga.localSearch");
+    private static final int LOCAL_SEARCH_RANKS = Integer.getInteger("ga.localSearchRanks", 1);
+    private static final int LOCAL_SEARCH_MOVES = Integer.getInteger("ga.localSearchMoves", 200000); // Moves per generation
+    // Wall-time limit of a local search round; 0 = one generation of a GA rank, measured at startup
+    private static final long LOCAL_SEARCH_ROUND_MILLIS = Long.getLong("ga.localSearchRoundMillis", 0L);
+
+    public static void main(String[] args) throws mpi.MPIException, IOException, InterruptedException {
         // Initialize MPI
         MPI.Init(args);
 
@@ -45,22 +110,82 @@ public class MPIMain {
 
         // Step 1: Rank 0 creates problem instance and broadcasts to all
         TimetableData data = broadcastProblemData(rank, size);
+        if (CONSTRAINTS_PATH != null) {
+            // Small text file: every rank reads it rather than extending the broadcast format
+            data = data.withConstraints(ConstraintModel.read(Paths.get(CONSTRAINTS_PATH), data.getDaysPerWeek(), data.getHoursPerDay()));
+        }
+
+        // Every rank applies the same delta to the broadcast instance, so ids agree everywhere
+        WarmStart warmStart = prepareWarmStart(rank, data);
+        if (warmStart != null) {
+            data = warmStart.getData();
+        }
+
+        // Every rank computes the same proven lower bound (cheap), rank 0 uses it to stop early
+        Presolve presolve = Presolve.analyze(data);
 
         if (rank == 0) {
             System.out.println("=".repeat(70));
             System.out.println("DISTRIBUTED GENETIC ALGORITHM - TIMETABLE SCHEDULING");
             System.out.println("=".repeat(70));
             System.out.println("Problem: " + data);
+            System.out.println(presolve);
             System.out.println("MPI Ranks (Islands): " + size);
             System.out.println("Population per island: " + POPULATION_SIZE);
             System.out.println("Total individuals: " + (POPULATION_SIZE * size));
             System.out.println("Migration interval: " + MIGRATION_INTERVAL + " generations");
+            if (LOCAL_SEARCH != null) {
+                System.out.println("Local search ranks: " + Math.min(LOCAL_SEARCH_RANKS, size - 1) + " (" + LOCAL_SEARCH + ")");
+            }
             System.out.println("=".repeat(70));
         }
 
+        // Decomposition (skipped for a warm start or a resume, which already start from a full timetable)
+        Decomposition decomposition = null;
+        Gene[] merged = null;
+        if (DECOMPOSE && warmStart == null && !(CHECKPOINT_DIR != null && RESUME)) {
+            decomposition = Decomposition.partition(data, CLUSTER_SIZE);
+            merged = solveClusters(rank, size, decomposition);
+        }
+
         // Step 2: Each rank creates its own island with unique seed
-        long seed = 12345L + rank * 1000;
-        Island myIsland = new Island(data, POPULATION_SIZE, MUTATION_RATE, CROSSOVER_RATE, ELITE_COUNT, seed);
+        long seed = SEED + rank * 1000L;
+        RoomMatcher roomMatcher = ROOM_DECODER ? new RoomMatcher(data) : null;
+        Island myIsland = new Island(data, POPULATION_SIZE, MUTATION_RATE, CROSSOVER_RATE, ELITE_COUNT, seed, roomMatcher);
+        myIsland.setDiversityPolicy(DIVERSITY);
+        if (warmStart != null) {
+            warmStart.seed(myIsland, POPULATION_SIZE / 2, seed, FOCUS_GENERATIONS);
+        } else if (decomposition != null) {
+            decomposition.seed(myIsland, merged, POPULATION_SIZE / 2, seed, FOCUS_GENERATIONS);
+        }
+
+        // A local search rank keeps its island as the pool it exchanges through (ring migration,
+        // reports, checkpoints) but improves it by local search rather than by evolution. A round
+        // may take as long as one generation of that island, so the GA ranks do not wait for it
+        // at every collective (or ga.localSearchRoundMillis, if set).
+        LocalSearchWorker localSearch = null;
+        if (LOCAL_SEARCH != null && rank > 0 && rank >= size - LOCAL_SEARCH_RANKS) {
+            localSearch = new LocalSearchWorker(LocalSearch.create(LOCAL_SEARCH, data, seed + 7), List.of(myIsland),
+                    LOCAL_SEARCH_MOVES, presolve.getLowerBound(), LOCAL_SEARCH_ROUND_MILLIS > 0
+                    ? LOCAL_SEARCH_ROUND_MILLIS * 1_000_000L : generationNanos(data, seed, roomMatcher), seed);
+        }
+
+        // Each rank publishes its own island over JMX; rank 0 aggregates all ranks
+        MetricsRegistry metrics = new MetricsRegistry(rank);
+        metrics.register(0, myIsland.getMetrics());
+
+        // Each rank restores its own shard; all ranks restart from the oldest generation among them
+        CheckpointWriter checkpoints = CHECKPOINT_DIR == null ? null : new CheckpointWriter(Paths.get(CHECKPOINT_DIR));
+        int startGeneration = 0;
+        if (checkpoints != null && RESUME) {
+            checkpoints.restore(myIsland, "rank-" + rank);
+            int[] generation = new int[]{myIsland.getGeneration()};
+            MPI.COMM_WORLD.allReduce(generation, 1, MPI.INT, MPI.MIN);
+            startGeneration = generation[0];
+            if (rank == 0) {
+                System.out.println("Resumed from checkpoint at generation " + startGeneration);
+            }
+        }
 
         if (rank == 0) {
             System.out.println("\nStarting evolution...\n");
@@ -68,30 +193,50 @@ public class MPIMain {
 
         // Step 3: Evolution loop
         boolean foundPerfect = false;
+        int generationsRun = startGeneration;
 
-        for (int generation = 0; generation < MAX_GENERATIONS && !foundPerfect; generation++) {
-            // Evolve local island
-            myIsland.evolve();
+        for (int generation = startGeneration; generation < MAX_GENERATIONS && !foundPerfect; generation++) {
+            // Evolve local island (or polish its best)
+            if (localSearch != null) {
+                localSearch.round();
+            } else {
+                myIsland.evolve();
+            }
+            generationsRun = generation + 1;
 
             // Migration: send best to next rank, receive from previous rank
             if (generation > 0 && generation % MIGRATION_INTERVAL == 0) {
                 migrateBestIndividuals(rank, size, myIsland, data);
             }
 
-            // Every 50 generations: rank 0 collects and prints global best
-            if (generation % 50 == 0) {
+            // Snapshot state is copied here, the file is written in the background
+            if (checkpoints != null && generationsRun % CHECKPOINT_INTERVAL == 0) {
+                checkpoints.checkpoint(myIsland, "rank-" + rank);
+            }
+
+            // Every REPORT_INTERVAL generations: rank 0 collects and prints global best
+            if (generation % REPORT_INTERVAL == 0) {
                 int globalBestFitness = collectGlobalBest(rank, size, myIsland);
+                List<MetricsRegistry.Sample> allSamples = gatherMetrics(rank, size, metrics);
 
                 if (rank == 0) {
                     Individual localBest = myIsland.getBest();
                     double avgFitness = myIsland.getAverageFitness();
 
-                    System.out.printf("Gen %4d | Island 0: Best=%3d Avg=%6.2f | Global Best=%3d",
-                            generation, localBest.getFitness(), avgFitness, globalBestFitness);
+                    MetricsRegistry.dumpIfConfigured(allSamples);
+                    MetricsSnapshot total = MetricsRegistry.aggregate(
+                            allSamples.stream().map(MetricsRegistry.Sample::getSnapshot).toList());
+
+                    System.out.printf("Gen %4d | Island 0: Best=%3d Avg=%6.2f | Global Best=%3d | Evals/s=%.0f",
+                            generation, localBest.getFitness(), avgFitness, globalBestFitness,
+                            total.getEvaluationsPerSecond());
 
                     if (globalBestFitness == 0) {
                         System.out.println(" ✓ PERFECT SOLUTION FOUND!");
                         foundPerfect = true;
+                    } else if (presolve.isOptimal(globalBestFitness)) {
+                        System.out.println(" ✓ LOWER BOUND REACHED (optimal)");
+                        foundPerfect = true;
                     } else {
                         System.out.println();
                     }
@@ -105,6 +250,14 @@ public class MPIMain {
         }
 
         // Step 4: Final report
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
+        long[] totalEvaluations = collectTotalEvaluations(myIsland, decomposition != null ? decomposition.getEvaluations() : 0,
+                localSearch != null ? localSearch.getEngine().getEvaluations() : 0,
+                localSearch != null ? localSearch.getImprovementsSent() : 0);
+        List<MetricsRegistry.Sample> finalSamples = gatherMetrics(rank, size, metrics);
+        Individual finalBest = gatherGlobalBest(rank, size, myIsland, data);
         MPI.COMM_WORLD.barrier();
 
         if (rank == 0) {
@@ -113,13 +266,30 @@ public class MPIMain {
             System.out.println("EVOLUTION COMPLETED");
             System.out.println("=".repeat(70));
             System.out.println("Total time: " + (endTime - startTime) + " ms");
+            System.out.println("Generations: " + generationsRun);
+            System.out.println("Evaluations: " + totalEvaluations[0]);
+            if (LOCAL_SEARCH != null) {
+                System.out.println("Local search: " + totalEvaluations[1] + " moves evaluated, "
+                        + totalEvaluations[2] + " improvements handed to islands");
+            }
+            MetricsRegistry.dumpIfConfigured(finalSamples);
 
-            Individual finalBest = myIsland.getBest();
             System.out.println("Best solution fitness: " + finalBest.getFitness());
+            if (SOLUTION_OUT != null) {
+                SolutionFile.write(Paths.get(SOLUTION_OUT), finalBest);
+                System.out.println("Solution written to " + SOLUTION_OUT);
+            }
+            if (EXPORT_FILES != null) {
+                TimetableExport.writeFiles(EXPORT_FILES, new TimetableIndex(finalBest.getGenes(), data), EXPORT_VIEW);
+                System.out.println("Timetable exported to " + EXPORT_FILES);
+            }
 
             if (finalBest.isPerfect()) {
                 System.out.println("\n✓ Found valid timetable with no conflicts!");
-                printTimetable(finalBest, data);
+                TimetableExport.print(System.out, new TimetableIndex(finalBest.getGenes(), data));
+            } else if (presolve.isOptimal(finalBest.getFitness())) {
+                System.out.println("\nBest solution has " + finalBest.getFitness()
+                        + " constraint violations, which is the proven minimum for this instance.");
             } else {
                 System.out.println("\nBest solution has " + finalBest.getFitness() + " constraint violations.");
                 System.out.println("Try running longer or increasing population size.");
@@ -131,13 +301,50 @@ public class MPIMain {
     }
 
     /**
-     * Rank 0 creates problem and broadcasts to all ranks
-     * Since MPI.OBJECT is not supported, we just create the same data on each rank
+     * Load the previous solution and problem delta, if a warm start was requested
      */
-    private static TimetableData broadcastProblemData(int rank, int size) throws mpi.MPIException {
-        // All ranks create identical problem with same seed
-        // This avoids need for object serialization
-        return TimetableData.generateRandom(NUM_CLASSES, NUM_ROOMS, NUM_TEACHERS, NUM_GROUPS, 42);
+    private static WarmStart prepareWarmStart(int rank, TimetableData base) throws IOException {
+        if (WARM_START_PATH == null) {
+            return null;
+        }
+
+        Gene[] previous = SolutionFile.read(Paths.get(WARM_START_PATH), base);
+        ProblemDelta delta = DELTA_PATH != null ? ProblemDelta.read(Paths.get(DELTA_PATH)) : new ProblemDelta();
+        WarmStart warmStart = WarmStart.prepare(base, previous, delta);
+        if (rank == 0) {
+            System.out.println("Warm start: " + delta.size() + " changes, " + warmStart.getAffectedGenes().length
+                    + " affected classes, repaired fitness " + warmStart.getRepaired().getFitness());
+        }
+        return warmStart;
+    }
+
+    /**
+     * Rank 0 loads (or generates) the problem and broadcasts it to all ranks
+     * The instance travels as its raw binary encoding (MPI.OBJECT is not supported):
+     * one bcast for the length, one for the bytes. Other ranks decode and validate it.
+     */
+    private static TimetableData broadcastProblemData(int rank, int size) throws mpi.MPIException, IOException {
+        byte[] encoded = null;
+        int[] length = new int[1];
+
+        if (rank == 0) {
+            TimetableData data = INSTANCE_PATH != null
+                    ? InstanceLoader.load(Paths.get(INSTANCE_PATH))
+                    : TimetableData.generateRandom(NUM_CLASSES, NUM_ROOMS, NUM_TEACHERS, NUM_GROUPS, INSTANCE_SEED);
+            if (size == 1) {
+                return data;
+            }
+            encoded = BinaryInstanceFormat.encode(data);
+            length[0] = encoded.length;
+        }
+
+        MPI.COMM_WORLD.bcast(length, 1, MPI.INT, 0);
+        if (rank != 0) {
+            encoded = new byte[length[0]];
+        }
+        MPI.COMM_WORLD.bcast(encoded, length[0], MPI.BYTE, 0);
+
+        return BinaryInstanceFormat.decode(ByteBuffer.wrap(encoded));
     }
 
     /**
@@ -150,27 +357,34 @@ public class MPIMain {
         int nextRank = (rank + 1) % size;
         int prevRank = (rank - 1 + size) % size;
 
-        Individual myBest = myIsland.getBest();
-
-        // Serialize individual to int arrays:
-        // Format: [fitness, classId0, day0, hour0, roomId0, classId1, day1, hour1, roomId1, ...]
-        // Size: 1 + NUM_CLASSES * 4
-        int[] sendData = serializeIndividual(myBest);
-        int[] recvData = new int[sendData.length];
-
-        // Use separate send and recv to avoid deadlock in ring topology
-        // Even ranks send first, odd ranks receive first
-        if (rank % 2 == 0) {
-            MPI.COMM_WORLD.send(sendData, sendData.length, MPI.INT, nextRank, TAG_MIGRATE_GENES);
-            MPI.COMM_WORLD.recv(recvData, recvData.length, MPI.INT, prevRank, TAG_MIGRATE_GENES);
-        } else {
-            MPI.COMM_WORLD.recv(recvData, recvData.length, MPI.INT, prevRank, TAG_MIGRATE_GENES);
-            MPI.COMM_WORLD.send(sendData, sendData.length, MPI.INT, nextRank, TAG_MIGRATE_GENES);
+        long start = System.nanoTime();
+        // With diversity control several candidates travel and the receiver keeps the most distant one
+        List<Individual> candidates = myIsland.getMigrantCandidates();
+        List<Individual> received = new ArrayList<>(candidates.size());
+
+        for (Individual candidate : candidates) {
+            // Serialize individual to int arrays:
+            // Format: [fitness, classId0, day0, hour0, roomId0, classId1, day1, hour1, roomId1, ...]
+            // Size: 1 + NUM_CLASSES * 4
+            int[] sendData = serializeIndividual(candidate);
+            int[] recvData = new int[sendData.length];
+
+            // Use separate send and recv to avoid deadlock in ring topology
+            // Even ranks send first, odd ranks receive first
+            if (rank % 2 == 0) {
+                MPI.COMM_WORLD.send(sendData, sendData.length, MPI.INT, nextRank, TAG_MIGRATE_GENES);
+                MPI.COMM_WORLD.recv(recvData, recvData.length, MPI.INT, prevRank, TAG_MIGRATE_GENES);
+            } else {
+                MPI.COMM_WORLD.recv(recvData, recvData.length, MPI.INT, prevRank, TAG_MIGRATE_GENES);
+                MPI.COMM_WORLD.send(sendData, sendData.length, MPI.INT, nextRank, TAG_MIGRATE_GENES);
+            }
+            received.add(deserializeIndividual(recvData, data));
         }
 
-        // Deserialize and integrate immigrant
-        Individual immigrant = deserializeIndividual(recvData, data);
-        myIsland.receiveImmigrant(immigrant);
+        // Integrate the chosen immigrant
+        Individual immigrant = myIsland.selectImmigrant(received);
+        boolean accepted = myIsland.receiveImmigrant(immigrant);
+        myIsland.getMetrics().recordMigration(System.nanoTime() - start, accepted);
     }
 
     /**
@@ -229,35 +443,109 @@ public class MPIMain {
     }
 
     /**
-     * Print the timetable in a readable format
+     * Ship the best individual of all ranks to rank 0 (the report, ga.solutionOut and ga.export use it)
+     * One allReduce(MIN) finds the best fitness, a second one the lowest rank holding it, which
+     * sends its individual to rank 0. Returns it on rank 0 and the local best elsewhere.
      */
-    private static void printTimetable(Individual solution, TimetableData data) {
-        System.out.println("\nTIMETABLE:");
-        System.out.println("-".repeat(70));
-
-        String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
-        Gene[] genes = solution.getGenes();
-
-        // Group by day and hour
-        for (int day = 0; day < 5; day++) {
-            System.out.println("\n" + days[day].toUpperCase());
-            for (int hour = 0; hour < 8; hour++) {
-                System.out.printf("  %2d:00 - ", (8 + hour));
-
-                boolean found = false;
-                for (Gene gene : genes) {
-                    if (gene.getTimeSlot().getDay() == day && gene.getTimeSlot().getHour() == hour) {
-                        var cls = data.getClass(gene.getClassId());
-                        System.out.printf("[%s, T%d, G%d, R%d] ",
-                                cls.getSubject(), cls.getTeacherId(), cls.getStudentGroup(), gene.getRoomId());
-                        found = true;
-                    }
-                }
-                if (!found) {
-                    System.out.print("-");
-                }
-                System.out.println();
+    private static Individual gatherGlobalBest(int rank, int size, Island myIsland, TimetableData data) throws mpi.MPIException {
+        Individual localBest = myIsland.getBest().copy();
+        int[] bestFitness = new int[]{localBest.getFitness()};
+        MPI.COMM_WORLD.allReduce(bestFitness, 1, MPI.INT, MPI.MIN);
+        int[] owner = new int[]{localBest.getFitness() == bestFitness[0] ? rank : size};
+        MPI.COMM_WORLD.allReduce(owner, 1, MPI.INT, MPI.MIN);
+
+        if (owner[0] == 0) {
+            return localBest;
+        }
+        int length = 1 + data.getClasses().size() * 4;
+        if (rank == owner[0]) {
+            MPI.COMM_WORLD.send(serializeIndividual(localBest), length, MPI.INT, 0, TAG_FINAL_BEST);
+        } else if (rank == 0) {
+            int[] received = new int[length];
+            MPI.COMM_WORLD.recv(received, length, MPI.INT, owner[0], TAG_FINAL_BEST);
+            return deserializeIndividual(received, data);
+        }
+        return localBest;
+    }
+
+    /**
+     * Gather every rank's metrics snapshot on rank 0 using MPI_Gather
+     * Returns all ranks' samples on rank 0 and an empty list elsewhere
+     */
+    private static List<MetricsRegistry.Sample> gatherMetrics(int rank, int size, MetricsRegistry metrics) throws mpi.MPIException {
+        double[] local = metrics.samples().get(0).getSnapshot().toArray();
+        double[] all = new double[MetricsSnapshot.NUM_FIELDS * size];
+
+        MPI.COMM_WORLD.gather(local, MetricsSnapshot.NUM_FIELDS, MPI.DOUBLE, all, MetricsSnapshot.NUM_FIELDS, MPI.DOUBLE, 0);
+
+        List<MetricsRegistry.Sample> samples = new ArrayList<>();
+        if (rank == 0) {
+            for (int r = 0; r < size; r++) {
+                samples.add(new MetricsRegistry.Sample(r, 0, MetricsSnapshot.fromArray(all, r * MetricsSnapshot.NUM_FIELDS)));
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Solve clusters k with k % size == rank, combine all ranks' results with one MPI_Allreduce(MAX)
+     * (unsolved entries are -1) and merge them; every rank gets the same merged timetable
+     */
+    private static Gene[] solveClusters(int rank, int size, Decomposition decomposition) throws mpi.MPIException {
+        long start = System.currentTimeMillis();
+        if (rank == 0) {
+            System.out.printf("Decomposition: %d clusters (max %d classes), %d cut classes%n",
+                    decomposition.getNumClusters(), CLUSTER_SIZE, decomposition.getCutSize());
+        }
+
+        Gene[][] solutions = new Gene[decomposition.getNumClusters()][];
+        for (int k = rank; k < solutions.length; k += size) {
+            solutions[k] = decomposition.solveCluster(k, POPULATION_SIZE, MUTATION_RATE, CROSSOVER_RATE,
+                    ELITE_COUNT, CLUSTER_GENERATIONS, SEED + 7919L * k, ROOM_DECODER);
+        }
+
+        int[] flat = decomposition.encode(solutions);
+        MPI.COMM_WORLD.allReduce(flat, flat.length, MPI.INT, MPI.MAX);
+        Gene[] merged = decomposition.merge(decomposition.decode(flat));
+
+        if (rank == 0) {
+            System.out.printf("Clusters solved and merged in %d ms, boundary repaired to fitness %d%n",
+                    System.currentTimeMillis() - start, new Individual(merged.clone(), decomposition.getData()).getFitness());
+        }
+        return merged;
+    }
+
+    /**
+     * Sum over all ranks, on rank 0 using MPI_Reduce: {fitness evaluations of the islands (plus the
+     * cluster phase), local search moves, local search improvements sent}
+     */
+    private static long[] collectTotalEvaluations(Island myIsland, long clusterEvaluations, long localSearchMoves,
+                                                  long localSearchImprovements) throws mpi.MPIException {
+        long[] localEvaluations = new long[]{myIsland.getEvaluations() + clusterEvaluations, localSearchMoves,
+                localSearchImprovements};
+        long[] totalEvaluations = new long[localEvaluations.length];
+
+        MPI.COMM_WORLD.reduce(localEvaluations, totalEvaluations, localEvaluations.length, MPI.LONG, MPI.SUM, 0);
+
+        return totalEvaluations;
+    }
+
+    /**
+     * Wall time of one generation of a GA rank, the time budget of a local search round
+     * Measured on a throwaway island (the rank's own island is left untouched), after warm-up
+     * generations so the JIT has compiled evolve(); the fastest of the timed generations is returned.
+     */
+    private static long generationNanos(TimetableData data, long seed, RoomMatcher roomMatcher) {
+        Island probe = new Island(data, POPULATION_SIZE, MUTATION_RATE, CROSSOVER_RATE, ELITE_COUNT, seed, roomMatcher);
+        probe.setDiversityPolicy(DIVERSITY);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            probe.evolve();
+            if (i >= 10) {
+                fastest = Math.min(fastest, System.nanoTime() - start);
             }
         }
+        return fastest;
     }
 }
@@ -0,0 +1,142 @@
+package org.example.regular;
+
+import org.example.common.batch.BatchJob;
+import org.example.common.batch.BatchResult;
+import org.example.common.batch.BatchSolver;
+import org.example.common.incremental.SolutionFile;
+import org.example.common.instance.BinaryInstanceFormat;
+import org.example.common.instance.InstanceLoader;
+import org.example.common.model.TimetableData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Batch solver CLI: many instances in one JVM, on one shared work-stealing pool
+ *
+ * Usage: BatchMain <instance>...   (CSV directory, *.tti file, or a directory containing those)
+ *        BatchMain                 (with -Dga.batch.random=N: N random instances)
+ *
+ * One CSV line per instance is printed as soon as it finishes (see BatchResult.CSV_HEADER).
+ */
+public class BatchMain {
+    // GA parameters per instance (same names as ConcurrentMain)
+    private static final int POPULATION_SIZE = Integer.getInteger("ga.populationSize", 100);
+    private static final double MUTATION_RATE = Double.parseDouble(System.getProperty("ga.mutationRate", "0.1"));
+    private static final double CROSSOVER_RATE = Double.parseDouble(System.getProperty("ga.crossoverRate", "0.8"));
+    private static final int ELITE_COUNT = Integer.getInteger("ga.eliteCount", 5);
+    private static final int MAX_GENERATIONS = Integer.getInteger("ga.maxGenerations", 1000);
+    private static final int MIGRATION_INTERVAL = Integer.getInteger("ga.migrationInterval", 50);
+    private static final long SEED = Long.getLong("ga.seed", 12345L);
+    private static final int NUM_ISLANDS = Integer.getInteger("ga.islands", 4);
+
+    // Batch: pool size, how many instances hold populations at once, time budget per instance
+    private static final int PARALLELISM = Integer.getInteger("ga.batch.parallelism", Runtime.getRuntime().availableProcessors());
+    private static final int MAX_ACTIVE = Integer.getInteger("ga.batch.maxActive", 2 * PARALLELISM);
+    private static final long MAX_MILLIS = Long.getLong("ga.batch.maxMillis", 0L);
+    private static final String SOLUTION_DIR = System.getProperty("ga.batch.solutionDir"); // <dir>/<instance>.csv
+
+    // Random instances (when no paths are given)
+    private static final int RANDOM_INSTANCES = Integer.getInteger("ga.batch.random", 0);
+    private static final int NUM_CLASSES = Integer.getInteger("ga.classes", 40);
+    private static final int NUM_ROOMS = Integer.getInteger("ga.rooms", 8);
+    private static final int NUM_TEACHERS = Integer.getInteger("ga.teachers", 10);
+    private static final int NUM_GROUPS = Integer.getInteger("ga.groups", 6);
+    private static final long INSTANCE_SEED = Long.getLong("ga.instanceSeed", 42L);
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<BatchJob> jobs = loadJobs(args);
+        if (jobs.isEmpty()) {
+            System.err.println("Usage: BatchMain <instance>...  or  -Dga.batch.random=<count> BatchMain");
+            System.exit(1);
+        }
+        if (SOLUTION_DIR != null) {
+            Files.createDirectories(Paths.get(SOLUTION_DIR));
+        }
+
+        System.err.printf("Batch: %d instances, %d workers, %d islands x %d individuals per instance%n",
+                jobs.size(), PARALLELISM, NUM_ISLANDS, POPULATION_SIZE);
+
+        long startTime = System.currentTimeMillis();
+        List<BatchResult> results;
+        try (BatchSolver solver = new BatchSolver(PARALLELISM, MAX_ACTIVE, NUM_ISLANDS, POPULATION_SIZE, MUTATION_RATE,
+                CROSSOVER_RATE, ELITE_COUNT, MIGRATION_INTERVAL, SEED)) {
+            System.out.println(BatchResult.CSV_HEADER);
+            results = solver.solveAll(jobs, BatchMain::report);
+        }
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        long evaluations = results.stream().mapToLong(BatchResult::getEvaluations).sum();
+        long optimal = results.stream().filter(r -> r.getStopReason().equals("optimal")).count();
+        long failed = results.stream().filter(BatchResult::isFailed).count();
+        System.err.println("Total time: " + elapsed + " ms");
+        System.err.println("Instances: " + results.size() + " (" + optimal + " solved to their lower bound, "
+                + failed + " failed)");
+        System.err.println("Evaluations: " + evaluations);
+        System.err.printf("Throughput: %.2f instances/s, %.0f evaluations/s%n",
+                results.size() * 1000.0 / Math.max(1, elapsed), evaluations * 1000.0 / Math.max(1, elapsed));
+        for (BatchResult result : results) {
+            if (result.isFailed()) {
+                System.err.println("Failed: " + result.getName() + ": " + result.getError());
+            }
+        }
+    }
+
+    /**
+     * Print one result line (and save its timetable) as soon as an instance finishes
+     */
+    private static void report(BatchResult result) {
+        System.out.println(result.toCsv());
+        System.out.flush();
+        if (SOLUTION_DIR != null && result.getBest() != null) {
+            try {
+                SolutionFile.write(Paths.get(SOLUTION_DIR, result.getName() + ".csv"), result.getBest());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static List<BatchJob> loadJobs(String[] args) throws IOException {
+        List<BatchJob> jobs = new ArrayList<>();
+        for (String arg : args) {
+            for (Path path : instancePaths(Paths.get(arg))) {
+                jobs.add(new BatchJob(instanceName(path), InstanceLoader.load(path), MAX_GENERATIONS, MAX_MILLIS));
+            }
+        }
+        for (int i = 0; i < RANDOM_INSTANCES; i++) {
+            TimetableData data = TimetableData.generateRandom(NUM_CLASSES, NUM_ROOMS, NUM_TEACHERS, NUM_GROUPS, INSTANCE_SEED + i);
+            jobs.add(new BatchJob("random-" + i, data, MAX_GENERATIONS, MAX_MILLIS));
+        }
+        return jobs;
+    }
+
+    /**
+     * A path is an instance itself (.tti file or CSV directory with classes.csv), or a directory of instances
+     */
+    private static List<Path> instancePaths(Path path) throws IOException {
+        if (!Files.isDirectory(path) || Files.exists(path.resolve("classes.csv"))) {
+            return List.of(path);
+        }
+        try (Stream<Path> children = Files.list(path)) {
+            return children
+                    .filter(child -> child.getFileName().toString().endsWith(BinaryInstanceFormat.EXTENSION)
+                            || Files.exists(child.resolve("classes.csv")))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String instanceName(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(BinaryInstanceFormat.EXTENSION)
+                ? name.substring(0, name.length() - BinaryInstanceFormat.EXTENSION.length())
+                : name;
+    }
+}
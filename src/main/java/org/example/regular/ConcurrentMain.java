@@ -1,13 +1,39 @@
 package org.example.regular;
 
+import org.example.common.checkpoint.CheckpointWriter;
+import org.example.common.constraints.ConstraintModel;
+import org.example.common.decomposition.Decomposition;
+import org.example.common.export.TimetableExport;
+import org.example.common.export.TimetableIndex;
+import org.example.common.ga.DiversityPolicy;
 import org.example.common.ga.Individual;
 import org.example.common.ga.Island;
+import org.example.common.ga.RoomMatcher;
+import org.example.common.incremental.ProblemDelta;
+import org.example.common.incremental.SolutionFile;
+import org.example.common.incremental.WarmStart;
+import org.example.common.instance.InstanceLoader;
+import org.example.common.localsearch.LocalSearch;
+import org.example.common.localsearch.LocalSearchWorker;
+import org.example.common.metrics.MetricsRegistry;
+import org.example.common.metrics.MetricsSnapshot;
 import org.example.common.model.Gene;
 import org.example.common.model.TimetableData;
+import org.example.common.portfolio.PortfolioConfig;
+import org.example.common.portfolio.PortfolioSolver;
+import org.example.common.presolve.Presolve;
+import org.example.common.runtime.IslandRuntime;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * Concurrent (Shared Memory) Genetic Algorithm for timetable scheduling
@@ -15,127 +41,432 @@ import java.util.concurrent.*;
  */
 public class ConcurrentMain {
 
-    // GA Parameters
-    private static final int POPULATION_SIZE = 100;
-    private static final double MUTATION_RATE = 0.1;
-    private static final double CROSSOVER_RATE = 0.8;
-    private static final int ELITE_COUNT = 5;
-    private static final int MAX_GENERATIONS = 1000;
-    private static final int MIGRATION_INTERVAL = 50;
-
-    private static final int NUM_ISLANDS = 4;
+    // GA Parameters (overridable with -Dga.<name>=<value>, see ScalingBenchmark)
+    private static final int POPULATION_SIZE = Integer.getInteger("ga.populationSize", 100);
+    private static final double MUTATION_RATE = Double.parseDouble(System.getProperty("ga.mutationRate", "0.1"));
+    private static final double CROSSOVER_RATE = Double.parseDouble(System.getProperty("ga.crossoverRate", "0.8"));
+    private static final int ELITE_COUNT = Integer.getInteger("ga.eliteCount", 5);
+    private static final int MAX_GENERATIONS = Integer.getInteger("ga.maxGenerations", 1000);
+    private static final int MIGRATION_INTERVAL = Integer.getInteger("ga.migrationInterval", 50);
+    private static final int REPORT_INTERVAL = Integer.getInteger("ga.reportInterval", 50);
+    private static final long SEED = Long.getLong("ga.seed", 12345L);
+    private static final boolean ROOM_DECODER = Boolean.getBoolean("ga.roomDecoder"); // Slot-only genome, rooms by matching
+
+    // Diversity control: duplicate rejection, restarts below a diversity threshold, distant immigrants (-Dga.diversity=true)
+    private static final DiversityPolicy DIVERSITY = Boolean.getBoolean("ga.diversity")
+            ? new DiversityPolicy(Double.parseDouble(System.getProperty("ga.diversityThreshold", "0.05")),
+                    Double.parseDouble(System.getProperty("ga.restartFraction", "0.3")), 8,
+                    Integer.getInteger("ga.migrantCandidates", 4))
+            : null;
+
+    // Checkpointing: enabled by -Dga.checkpointDir, resume with -Dga.resume=true
+    private static final String CHECKPOINT_DIR = System.getProperty("ga.checkpointDir");
+    private static final int CHECKPOINT_INTERVAL = Integer.getInteger("ga.checkpointInterval", 100);
+    private static final boolean RESUME = Boolean.getBoolean("ga.resume");
+
+    private static final int NUM_ISLANDS = Integer.getInteger("ga.islands", 4);
+    // Island runtime: "pool" (fixed thread pool, generation barrier) or "virtual" (one virtual thread per island)
+    private static final String RUNTIME = System.getProperty("ga.runtime", "pool");
+    private static final long REPORT_MILLIS = Long.getLong("ga.reportMillis", 1000L); // Progress interval of the virtual runtime
 
     // Problem parameters
-    private static final int NUM_CLASSES = 40;
-    private static final int NUM_ROOMS = 8;
-    private static final int NUM_TEACHERS = 10;
-    private static final int NUM_GROUPS = 6;
-
-    public static void main(String[] args) throws InterruptedException, ExecutionException {
+    private static final int NUM_CLASSES = Integer.getInteger("ga.classes", 40);
+    private static final int NUM_ROOMS = Integer.getInteger("ga.rooms", 8);
+    private static final int NUM_TEACHERS = Integer.getInteger("ga.teachers", 10);
+    private static final int NUM_GROUPS = Integer.getInteger("ga.groups", 6);
+    private static final long INSTANCE_SEED = Long.getLong("ga.instanceSeed", 42L);
+    private static final String INSTANCE_PATH = System.getProperty("ga.instance"); // CSV directory or .tti file
+    private static final String CONSTRAINTS_PATH = System.getProperty("ga.constraints"); // Extra constraints, see ConstraintModel
+
+    // Incremental re-optimisation: start from -Dga.warmStart=<solution.csv>, optionally changed by -Dga.delta=<delta.txt>
+    private static final String WARM_START_PATH = System.getProperty("ga.warmStart");
+    private static final String DELTA_PATH = System.getProperty("ga.delta");
+    private static final int FOCUS_GENERATIONS = Integer.getInteger("ga.focusGenerations", 100);
+    private static final String SOLUTION_OUT = System.getProperty("ga.solutionOut");
+    // Timetable export: -Dga.export=out.json,out.ics (format from the extension), -Dga.exportView=slot|teacher|group|room
+    private static final String EXPORT_FILES = System.getProperty("ga.export");
+    private static final TimetableIndex.View EXPORT_VIEW = TimetableIndex.View.valueOf(System.getProperty("ga.exportView", "slot").toUpperCase(Locale.ROOT));
+
+    // Decomposition: solve clusters of the conflict graph separately first (-Dga.decompose=true)
+    private static final boolean DECOMPOSE = Boolean.getBoolean("ga.decompose");
+    private static final int CLUSTER_SIZE = Integer.getInteger("ga.clusterSize", 200);
+    private static final int CLUSTER_GENERATIONS = Integer.getInteger("ga.clusterGenerations", 300);
+
+    // Portfolio racing: -Dga.portfolio=default or a list of configurations (see PortfolioConfig)
+    private static final String PORTFOLIO = System.getProperty("ga.portfolio");
+    private static final int PORTFOLIO_EPOCH_GENERATIONS = Integer.getInteger("ga.portfolio.epochGenerations", 10);
+    private static final int PORTFOLIO_WARMUP = Integer.getInteger("ga.portfolio.warmupEpochs", 5);
+    private static final int PORTFOLIO_PATIENCE = Integer.getInteger("ga.portfolio.patience", 3);
+
+    // Hybrid: local search threads polishing the islands' best (-Dga.localSearch=sa|tabu)
+    private static final String LOCAL_SEARCH = System.getProperty("ga.localSearch");
+    private static final int LOCAL_SEARCH_THREADS = Integer.getInteger("ga.localSearchThreads", 1);
+    private static final int LOCAL_SEARCH_MOVES = Integer.getInteger("ga.localSearchMoves", 200000); // Moves per exchange round
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
         long startTime = System.currentTimeMillis();
+        if (PORTFOLIO != null && CHECKPOINT_DIR != null) {
+            // Cancelled configurations are replaced by new islands, so there is no fixed set of shards
+            throw new IllegalArgumentException("-Dga.checkpointDir cannot be combined with -Dga.portfolio");
+        }
 
         System.out.println("=".repeat(70));
         System.out.println("CONCURRENT GENETIC ALGORITHM - TIMETABLE SCHEDULING");
         System.out.println("=".repeat(70));
 
-        // 1. Generate Data
-        TimetableData data = TimetableData.generateRandom(NUM_CLASSES, NUM_ROOMS, NUM_TEACHERS, NUM_GROUPS, 42);
+        // 1. Load or generate Data
+        TimetableData data = INSTANCE_PATH != null
+                ? InstanceLoader.load(Paths.get(INSTANCE_PATH))
+                : TimetableData.generateRandom(NUM_CLASSES, NUM_ROOMS, NUM_TEACHERS, NUM_GROUPS, INSTANCE_SEED);
+        if (CONSTRAINTS_PATH != null) {
+            data = data.withConstraints(ConstraintModel.read(Paths.get(CONSTRAINTS_PATH), data.getDaysPerWeek(), data.getHoursPerDay()));
+        }
+        WarmStart warmStart = prepareWarmStart(data);
+        if (warmStart != null) {
+            data = warmStart.getData();
+        }
         System.out.println("Problem: " + data);
+
+        // Proven lower bound: stop as soon as it is reached, even if it is above 0
+        Presolve presolve = Presolve.analyze(data);
+        System.out.println(presolve);
         System.out.println("Threads (Islands): " + NUM_ISLANDS);
         System.out.println("Total Population: " + (POPULATION_SIZE * NUM_ISLANDS));
 
-        // 2. Initialize Islands
+        // Thread pool shared by the cluster phase and the islands
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_ISLANDS);
+
+        // Decomposition (skipped for a warm start or a resume, which already start from a full timetable)
+        Decomposition decomposition = null;
+        Gene[] merged = null;
+        if (DECOMPOSE && warmStart == null && !(CHECKPOINT_DIR != null && RESUME)) {
+            decomposition = Decomposition.partition(data, CLUSTER_SIZE);
+            merged = solveClusters(decomposition, executor);
+        }
+
+        // 2. Initialize Islands (each one publishes its metrics over JMX)
         List<Island> islands = new ArrayList<>();
-        for (int i = 0; i < NUM_ISLANDS; i++) {
+        MetricsRegistry metrics = new MetricsRegistry(0);
+        RoomMatcher roomMatcher = ROOM_DECODER ? new RoomMatcher(data) : null; // Shared by all islands
+        PortfolioSolver portfolio = null;
+        if (PORTFOLIO != null) {
+            // Island groups with different parameters race each other (no checkpoints)
+            PortfolioConfig base = new PortfolioConfig("base", POPULATION_SIZE, MUTATION_RATE, CROSSOVER_RATE,
+                    ELITE_COUNT, MIGRATION_INTERVAL);
+            List<PortfolioConfig> configs = PortfolioConfig.parse(PORTFOLIO, base);
+            portfolio = new PortfolioSolver(data, configs, NUM_ISLANDS, SEED, roomMatcher, DIVERSITY, metrics,
+                    PORTFOLIO_WARMUP, PORTFOLIO_PATIENCE);
+            System.out.println("Portfolio: " + configs.size() + " configurations");
+            int id = 0; // Same island ids (and seeds) as the solver's
+            for (PortfolioSolver.Group group : portfolio.getGroups()) {
+                System.out.println("  " + group.getConfig().describe() + " on " + group.getNumIslands() + " islands");
+                for (Island island : group.getIslands()) {
+                    seedIsland(island, group.getConfig().getPopulationSize(), SEED + id++ * 1000L, warmStart,
+                            decomposition, merged);
+                }
+            }
+            if (RUNTIME.equals("virtual")) {
+                System.out.println("Runtime: the portfolio races on the thread pool, -Dga.runtime=virtual is ignored");
+            }
+        }
+        for (int i = 0; portfolio == null && i < NUM_ISLANDS; i++) {
             // Unique seed for each island
-            long seed = 12345L + i * 1000;
-            islands.add(new Island(data, POPULATION_SIZE, MUTATION_RATE, CROSSOVER_RATE, ELITE_COUNT, seed));
+            long seed = SEED + i * 1000L;
+            Island island = new Island(data, POPULATION_SIZE, MUTATION_RATE, CROSSOVER_RATE, ELITE_COUNT, seed, roomMatcher);
+            island.setDiversityPolicy(DIVERSITY);
+            seedIsland(island, POPULATION_SIZE, seed, warmStart, decomposition, merged);
+            islands.add(island);
+            metrics.register(i, island.getMetrics());
         }
 
-        // 3. Create Thread Pool
-        ExecutorService executor = Executors.newFixedThreadPool(NUM_ISLANDS);
+        // Resume every island from its own checkpoint shard, if asked to
+        CheckpointWriter checkpoints = CHECKPOINT_DIR == null ? null : new CheckpointWriter(Paths.get(CHECKPOINT_DIR));
+        int startGeneration = 0;
+        if (checkpoints != null && RESUME) {
+            for (int i = 0; i < islands.size(); i++) {
+                checkpoints.restore(islands.get(i), "island-" + i);
+            }
+            startGeneration = islands.stream().mapToInt(Island::getGeneration).min().orElse(0);
+            System.out.println("Resumed from checkpoint at generation " + startGeneration);
+        }
 
         boolean foundPerfect = false;
         Individual globalBest = null;
+        int generationsRun = startGeneration;
+
+        // Local search runs on its own threads next to whichever runtime evolves the islands
+        List<LocalSearchWorker> localSearch = new ArrayList<>();
+        AtomicBoolean localSearchStop = new AtomicBoolean();
+        ExecutorService localSearchExecutor = null;
+        if (LOCAL_SEARCH != null) {
+            localSearchExecutor = Executors.newFixedThreadPool(LOCAL_SEARCH_THREADS);
+            // The portfolio replaces the islands of cancelled configurations: ask it every round
+            Supplier<List<Island>> searched = portfolio != null ? portfolio::getLiveIslands : () -> islands;
+            for (int i = 0; i < LOCAL_SEARCH_THREADS; i++) {
+                LocalSearchWorker worker = new LocalSearchWorker(LocalSearch.create(LOCAL_SEARCH, data, SEED + 7L * (i + 1)),
+                        searched, LOCAL_SEARCH_MOVES, presolve.getLowerBound(), 0, SEED + i);
+                localSearch.add(worker);
+                localSearchExecutor.execute(worker.loop(localSearchStop::get));
+            }
+            System.out.println("Local search: " + LOCAL_SEARCH_THREADS + " " + LOCAL_SEARCH + " thread(s), "
+                    + LOCAL_SEARCH_MOVES + " moves per exchange");
+        }
 
         System.out.println("\nStarting evolution...\n");
 
         // 4. Evolution Loop
-        for (int generation = 0; generation < MAX_GENERATIONS && !foundPerfect; generation++) {
-
-            // Define the task: Each island runs one evolution step
-            List<Callable<Void>> tasks = new ArrayList<>();
-            for (Island island : islands) {
-                tasks.add(() -> {
-                    island.evolve();
-                    return null;
-                });
-            }
+        if (portfolio != null) {
+            generationsRun = runPortfolio(portfolio, presolve, executor);
+        } else if (RUNTIME.equals("virtual")) {
+            generationsRun = runOnIslandRuntime(islands, presolve, metrics, checkpoints);
+        } else {
+            for (int generation = startGeneration; generation < MAX_GENERATIONS && !foundPerfect; generation++) {
+
+                // Define the task: Each island runs one evolution step
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (Island island : islands) {
+                    tasks.add(() -> {
+                        island.evolve();
+                        return null;
+                    });
+                }
 
-            // Run all islands in parallel and wait for them to finish this generation
-            executor.invokeAll(tasks);
+                // Run all islands in parallel and wait for them to finish this generation
+                executor.invokeAll(tasks);
+                generationsRun = generation + 1;
 
-            // Periodically migrate and report
-            if (generation % MIGRATION_INTERVAL == 0) {
-                // Migration: Ring topology in shared memory
-                performMigration(islands);
-            }
+                // Periodically migrate and report
+                if (generation % MIGRATION_INTERVAL == 0) {
+                    // Migration: Ring topology in shared memory
+                    performMigration(islands);
+                }
+
+                // Snapshot state is copied here, the file is written in the background
+                if (checkpoints != null && generationsRun % CHECKPOINT_INTERVAL == 0) {
+                    for (int i = 0; i < islands.size(); i++) {
+                        checkpoints.checkpoint(islands.get(i), "island-" + i);
+                    }
+                }
+
+                // Checking for a perfect (or provably optimal) solution is cheap in shared memory,
+                // so do it every generation and only print progress every REPORT_INTERVAL gens
+                foundPerfect = islands.stream().anyMatch(island -> presolve.isOptimal(island.getBest().getFitness()));
 
-            // Check progress every 50 gens
-            if (generation % 50 == 0) {
-                globalBest = getGlobalBest(islands);
-                double avgFitness = islands.stream().mapToDouble(Island::getAverageFitness).average().orElse(0);
+                if (generation % REPORT_INTERVAL == 0 || foundPerfect) {
+                    globalBest = getGlobalBest(islands);
+                    double avgFitness = islands.stream().mapToDouble(Island::getAverageFitness).average().orElse(0);
 
-                System.out.printf("Gen %4d | Global Best Fitness=%3d | Global Avg Fitness=%6.2f",
-                        generation, globalBest.getFitness(), avgFitness);
+                    List<MetricsRegistry.Sample> samples = metrics.samples();
+                    MetricsRegistry.dumpIfConfigured(samples);
+                    MetricsSnapshot total = MetricsRegistry.aggregate(
+                            samples.stream().map(MetricsRegistry.Sample::getSnapshot).toList());
 
-                if (globalBest.isPerfect()) {
-                    System.out.println(" ✓ PERFECT SOLUTION FOUND!");
-                    foundPerfect = true;
-                } else {
-                    System.out.println();
+                    System.out.printf("Gen %4d | Global Best Fitness=%3d | Global Avg Fitness=%6.2f | Evals/s=%.0f",
+                            generation, globalBest.getFitness(), avgFitness, total.getEvaluationsPerSecond());
+
+                    if (globalBest.isPerfect()) {
+                        System.out.println(" ✓ PERFECT SOLUTION FOUND!");
+                    } else if (presolve.isOptimal(globalBest.getFitness())) {
+                        System.out.println(" ✓ LOWER BOUND REACHED (optimal)");
+                    } else {
+                        System.out.println();
+                    }
                 }
             }
         }
 
         // 5. Cleanup and Report
         executor.shutdown();
+        if (localSearchExecutor != null) {
+            localSearchStop.set(true);
+            localSearchExecutor.shutdown();
+            localSearchExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
         long endTime = System.currentTimeMillis();
 
         System.out.println("\n" + "=".repeat(70));
         System.out.println("EVOLUTION COMPLETED");
         System.out.println("=".repeat(70));
         System.out.println("Total time: " + (endTime - startTime) + " ms");
+        System.out.println("Generations: " + generationsRun);
+        System.out.println("Evaluations: " + (islands.stream().mapToLong(Island::getEvaluations).sum()
+                + (decomposition != null ? decomposition.getEvaluations() : 0)
+                + (portfolio != null ? portfolio.getEvaluations() : 0)));
+        if (!localSearch.isEmpty()) {
+            System.out.println("Local search: " + localSearch.stream().mapToLong(w -> w.getEngine().getEvaluations()).sum()
+                    + " moves evaluated, " + localSearch.stream().mapToLong(LocalSearchWorker::getImprovementsSent).sum()
+                    + " improvements handed to islands");
+        }
+        MetricsRegistry.dumpIfConfigured(metrics.samples());
 
-        if (globalBest == null) globalBest = getGlobalBest(islands);
+        globalBest = portfolio != null ? portfolio.getBest() : getGlobalBest(islands);
 
         System.out.println("Best solution fitness: " + globalBest.getFitness());
+        if (SOLUTION_OUT != null) {
+            SolutionFile.write(Paths.get(SOLUTION_OUT), globalBest);
+            System.out.println("Solution written to " + SOLUTION_OUT);
+        }
+        if (EXPORT_FILES != null) {
+            TimetableExport.writeFiles(EXPORT_FILES, new TimetableIndex(globalBest.getGenes(), data), EXPORT_VIEW);
+            System.out.println("Timetable exported to " + EXPORT_FILES);
+        }
 
         if (globalBest.isPerfect()) {
             System.out.println("\n✓ Found valid timetable with no conflicts!");
-            printTimetable(globalBest, data);
+            TimetableExport.print(System.out, new TimetableIndex(globalBest.getGenes(), data));
+        } else if (presolve.isOptimal(globalBest.getFitness())) {
+            System.out.println("\nBest solution has " + globalBest.getFitness()
+                    + " violations, which is the proven minimum for this instance.");
         } else {
             System.out.println("\nBest solution has " + globalBest.getFitness() + " violations.");
         }
     }
 
+    /**
+     * Evolve islands on their own (virtual) threads without a per-generation barrier
+     * Returns the number of generations of the most advanced island
+     */
+    private static int runOnIslandRuntime(List<Island> islands, Presolve presolve, MetricsRegistry metrics,
+                                          CheckpointWriter checkpoints) throws InterruptedException, ExecutionException {
+        try (IslandRuntime runtime = IslandRuntime.open()) {
+            System.out.println("Runtime: " + (runtime.isVirtual() ? "virtual threads" : "platform threads (JDK < 21)")
+                    + ", one per island");
+            // Each island checkpoints its own shard at its own generation (no common generation here)
+            runtime.start(islands, MAX_GENERATIONS, MIGRATION_INTERVAL, presolve::isOptimal,
+                    checkpoints != null ? CHECKPOINT_INTERVAL : 0,
+                    i -> checkpoints.checkpoint(islands.get(i), "island-" + i));
+            runtime.join(REPORT_MILLIS, () -> {
+                Individual best = getGlobalBest(islands);
+                MetricsSnapshot total = MetricsRegistry.aggregate(
+                        metrics.samples().stream().map(MetricsRegistry.Sample::getSnapshot).toList());
+                System.out.printf("Gen %4d | Global Best Fitness=%3d | Evals/s=%.0f%n",
+                        islands.stream().mapToInt(Island::getGeneration).max().orElse(0),
+                        best.getFitness(), total.getEvaluationsPerSecond());
+            });
+        }
+        return islands.stream().mapToInt(Island::getGeneration).max().orElse(0);
+    }
+
+    /**
+     * Race the portfolio's configurations on the pool, then print how each one did
+     * Returns the number of generations of the most advanced island
+     */
+    private static int runPortfolio(PortfolioSolver portfolio, Presolve presolve, ExecutorService executor)
+            throws InterruptedException {
+        long epochEvaluations = (long) PORTFOLIO_EPOCH_GENERATIONS * POPULATION_SIZE * NUM_ISLANDS;
+        long maxEvaluations = (long) MAX_GENERATIONS * POPULATION_SIZE * NUM_ISLANDS; // Budget of a plain run
+        int reportEvery = Math.max(1, REPORT_INTERVAL / PORTFOLIO_EPOCH_GENERATIONS);
+        int[] liveGroups = {portfolio.getGroups().size()};
+
+        portfolio.run(executor, epochEvaluations, maxEvaluations, presolve::isOptimal, race -> {
+            int live = (int) race.getGroups().stream().filter(group -> !group.isCancelled()).count();
+            if (live < liveGroups[0] || race.getEpoch() % reportEvery == 0) {
+                PortfolioSolver.Group leader = race.getLeader();
+                System.out.printf("Epoch %3d | Best Fitness=%3d | Leader=%s (%d islands) | Configurations left=%d%n",
+                        race.getEpoch(), leader.getBest().getFitness(), leader.getConfig().getName(),
+                        leader.getNumIslands(), live);
+            }
+            liveGroups[0] = live;
+        });
+
+        System.out.println("\nPortfolio race after " + portfolio.getEpoch() + " epochs:");
+        for (PortfolioSolver.Group group : portfolio.getGroups()) {
+            List<Integer> trajectory = group.getTrajectory();
+            System.out.printf("  %-50s best=%d%s%n", group.getConfig().describe(),
+                    trajectory.isEmpty() ? group.getBest().getFitness() : trajectory.get(trajectory.size() - 1),
+                    group.isCancelled() ? ", cancelled at epoch " + group.getCancelledAtEpoch()
+                            : ", " + group.getNumIslands() + " islands at the end");
+        }
+        return portfolio.getGenerations();
+    }
+
+    /**
+     * Solve every cluster on the pool (largest first, so stragglers start early) and merge the results
+     */
+    private static Gene[] solveClusters(Decomposition decomposition, ExecutorService executor)
+            throws InterruptedException, ExecutionException {
+        long start = System.currentTimeMillis();
+        int numClusters = decomposition.getNumClusters();
+        System.out.printf("Decomposition: %d clusters (max %d classes), %d cut classes%n",
+                numClusters, CLUSTER_SIZE, decomposition.getCutSize());
+
+        List<Integer> order = new ArrayList<>();
+        for (int k = 0; k < numClusters; k++) {
+            order.add(k);
+        }
+        order.sort((a, b) -> Integer.compare(decomposition.getClusterSize(b), decomposition.getClusterSize(a)));
+
+        Map<Integer, Future<Gene[]>> futures = new HashMap<>();
+        for (int k : order) {
+            futures.put(k, executor.submit(() -> decomposition.solveCluster(k, POPULATION_SIZE, MUTATION_RATE,
+                    CROSSOVER_RATE, ELITE_COUNT, CLUSTER_GENERATIONS, SEED + 7919L * k, ROOM_DECODER)));
+        }
+        Gene[][] solutions = new Gene[numClusters][];
+        for (int k = 0; k < numClusters; k++) {
+            solutions[k] = futures.get(k).get();
+        }
+
+        Gene[] merged = decomposition.merge(solutions);
+        System.out.printf("Clusters solved and merged in %d ms, boundary repaired to fitness %d%n",
+                System.currentTimeMillis() - start, new Individual(merged.clone(), decomposition.getData()).getFitness());
+        return merged;
+    }
+
+    /**
+     * Seed half of a new island's population from the warm start or the merged clusters, if there is one
+     */
+    private static void seedIsland(Island island, int populationSize, long seed, WarmStart warmStart,
+                                   Decomposition decomposition, Gene[] merged) {
+        if (warmStart != null) {
+            warmStart.seed(island, populationSize / 2, seed, FOCUS_GENERATIONS);
+        } else if (decomposition != null) {
+            decomposition.seed(island, merged, populationSize / 2, seed, FOCUS_GENERATIONS);
+        }
+    }
+
+    /**
+     * Load the previous solution and problem delta, if a warm start was requested
+     */
+    private static WarmStart prepareWarmStart(TimetableData base) throws IOException {
+        if (WARM_START_PATH == null) {
+            return null;
+        }
+
+        Gene[] previous = SolutionFile.read(Paths.get(WARM_START_PATH), base);
+        ProblemDelta delta = DELTA_PATH != null ? ProblemDelta.read(Paths.get(DELTA_PATH)) : new ProblemDelta();
+        WarmStart warmStart = WarmStart.prepare(base, previous, delta);
+        System.out.println("Warm start: " + delta.size() + " changes, " + warmStart.getAffectedGenes().length
+                + " affected classes, repaired fitness " + warmStart.getRepaired().getFitness());
+        return warmStart;
+    }
+
     /**
      * Performs migration between islands using a ring topology.
      * Island 0 -> Island 1 -> ... -> Island N -> Island 0
      */
     private static void performMigration(List<Island> islands) {
         // We capture the best individuals *before* we start modifying islands
-        List<Individual> migrants = new ArrayList<>();
-        for (Island island : islands) {
-            // IMPORTANT: Create a copy, otherwise the gene references might be modified
-            // by the source island while the destination island is using them.
-            migrants.add(island.getBest().copy());
+        // (copies: the source island would otherwise keep modifying the gene arrays)
+        // Latency = capturing the candidates + selecting and integrating the immigrant, like the
+        // send/recv span the MPI runtime measures
+        List<List<Individual>> migrants = new ArrayList<>();
+        long[] captureNanos = new long[islands.size()];
+        for (int i = 0; i < islands.size(); i++) {
+            long start = System.nanoTime();
+            migrants.add(islands.get(i).getMigrantCandidates());
+            captureNanos[i] = System.nanoTime() - start;
         }
 
         for (int i = 0; i < islands.size(); i++) {
+            long start = System.nanoTime();
             Island destination = islands.get((i + 1) % islands.size());
-            Individual immigrant = migrants.get(i);
-            destination.receiveImmigrant(immigrant);
+            // The destination keeps the candidate farthest from its population (or the best one)
+            Individual immigrant = destination.selectImmigrant(migrants.get(i));
+            boolean accepted = destination.receiveImmigrant(immigrant);
+            destination.getMetrics().recordMigration(captureNanos[i] + System.nanoTime() - start, accepted);
         }
     }
 
@@ -152,36 +483,4 @@ public class ConcurrentMain {
         }
         return best;
     }
-
-    /**
-     * Helper to print the timetable (Identical to MPI version for consistency)
-     */
-    private static void printTimetable(Individual solution, TimetableData data) {
-        System.out.println("\nTIMETABLE:");
-        System.out.println("-".repeat(70));
-
-        String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
-        Gene[] genes = solution.getGenes();
-
-        for (int day = 0; day < 5; day++) {
-            System.out.println("\n" + days[day].toUpperCase());
-            for (int hour = 0; hour < 8; hour++) {
-                System.out.printf("  %2d:00 - ", (8 + hour));
-
-                boolean found = false;
-                for (Gene gene : genes) {
-                    if (gene.getTimeSlot().getDay() == day && gene.getTimeSlot().getHour() == hour) {
-                        var cls = data.getClass(gene.getClassId());
-                        System.out.printf("[%s, T%d, G%d, R%d] ",
-                                cls.getSubject(), cls.getTeacherId(), cls.getStudentGroup(), gene.getRoomId());
-                        found = true;
-                    }
-                }
-                if (!found) {
-                    System.out.print("-");
-                }
-                System.out.println();
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.example.common.checkpoint;
+
+import org.example.common.ga.Island;
+import org.example.common.ga.IslandState;
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CheckpointFileTest {
+    private final TimetableData data = TimetableData.generateRandom(40, 8, 10, 6, 42L);
+
+    @Test
+    void roundTripRestoresPopulationAndRng() throws IOException {
+        Island original = new Island(data, 30, 0.1, 0.8, 2, 1L);
+        for (int g = 0; g < 5; g++) {
+            original.evolve();
+        }
+        Path file = Files.createTempDirectory("checkpoint-test").resolve("island.ckpt");
+        CheckpointFile.write(file, original.captureState());
+
+        // Different seed: everything must come from the checkpoint
+        Island restored = new Island(data, 30, 0.1, 0.8, 2, 99L);
+        restored.restoreState(CheckpointFile.read(file));
+        assertSameState(original.captureState(), restored.captureState());
+
+        // Same RNG state: both islands keep evolving identically
+        for (int g = 0; g < 5; g++) {
+            original.evolve();
+            restored.evolve();
+        }
+        assertSameState(original.captureState(), restored.captureState());
+    }
+
+    @Test
+    void corruptedFileIsRejected() throws IOException {
+        Island island = new Island(data, 10, 0.1, 0.8, 2, 1L);
+        Path file = Files.createTempDirectory("checkpoint-test").resolve("island.ckpt");
+        CheckpointFile.write(file, island.captureState());
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> CheckpointFile.read(file));
+    }
+
+    private static void assertSameState(IslandState expected, IslandState actual) {
+        assertEquals(expected.getGeneration(), actual.getGeneration());
+        assertEquals(expected.getInstanceHash(), actual.getInstanceHash());
+        assertArrayEquals(expected.getSlots(), actual.getSlots());
+        assertArrayEquals(expected.getRooms(), actual.getRooms());
+        assertArrayEquals(expected.getFitness(), actual.getFitness());
+        assertArrayEquals(expected.getRngState(), actual.getRngState());
+    }
+}
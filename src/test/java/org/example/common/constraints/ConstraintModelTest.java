@@ -0,0 +1,42 @@
+package org.example.common.constraints;
+
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConstraintModelTest {
+    private final TimetableData data = TimetableData.generateRandom(20, 3, 4, 4, 1L);
+
+    @Test
+    void unavailabilityOutsideTheWeekIsRejected() {
+        int days = data.getDaysPerWeek();
+        int hours = data.getHoursPerDay();
+        ConstraintModel model = new ConstraintModel();
+        assertThrows(IllegalArgumentException.class, () -> model.teacherUnavailable(0, days, 0, 1, days, hours));
+        assertThrows(IllegalArgumentException.class, () -> model.teacherUnavailable(0, -1, 0, 1, days, hours));
+        assertThrows(IllegalArgumentException.class, () -> model.teacherUnavailable(0, 0, -1, 1, days, hours));
+        assertThrows(IllegalArgumentException.class, () -> model.teacherUnavailable(0, 0, 2, hours + 1, days, hours));
+        assertEquals(0b1100L, model.teacherUnavailable(0, 0, 2, 4, days, hours).getTeacherUnavailableSlots(0));
+    }
+
+    @Test
+    void noneIsNotShared() {
+        ConstraintModel.none().maxConsecutiveHours(3);
+        assertEquals(0, ConstraintModel.none().getMaxConsecutiveHours());
+        assertEquals(0, TimetableData.generateRandom(20, 3, 4, 4, 1L).getConstraints().getMaxConsecutiveHours());
+    }
+
+    @Test
+    void fingerprintCoversConstraints() {
+        ConstraintModel lunch = new ConstraintModel()
+                .teacherUnavailable(0, 0, 4, 5, data.getDaysPerWeek(), data.getHoursPerDay());
+        ConstraintModel limit = new ConstraintModel().maxConsecutiveHours(3);
+
+        assertEquals(data.fingerprint(), data.withConstraints(ConstraintModel.none()).fingerprint());
+        assertNotEquals(data.fingerprint(), data.withConstraints(lunch).fingerprint());
+        assertNotEquals(data.withConstraints(lunch).fingerprint(), data.withConstraints(limit).fingerprint());
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.common.constraints;
+
+import org.example.common.ga.Individual;
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KernelStateTest {
+    private static final int STEPS = 5_000;
+
+    @Test
+    void violationsMatchFullEvaluationWithoutExtraConstraints() {
+        checkRandomMoves(TimetableData.generateRandom(60, 5, 10, 8, 3L));
+    }
+
+    @Test
+    void violationsMatchFullEvaluationWithExtraConstraints() {
+        TimetableData data = TimetableData.generateRandom(60, 5, 10, 8, 3L);
+        checkRandomMoves(data.withConstraints(constraints(data)));
+    }
+
+    /**
+     * Random moves, swaps and slot swaps; after each one the incremental count and the
+     * applied delta must agree with a full evaluation of the genome
+     */
+    private static void checkRandomMoves(TimetableData data) {
+        ConstraintKernel kernel = data.getKernel();
+        Random rand = new Random(11L);
+        KernelState state = kernel.newState(Individual.createRandom(data, rand).getGenes());
+        assertEquals(kernel.evaluate(state.toGenes(), true), state.getViolations());
+
+        for (int step = 0; step < STEPS; step++) {
+            int a = rand.nextInt(state.size());
+            int b = rand.nextInt(state.size());
+            int before = state.getViolations();
+            int delta;
+            switch (rand.nextInt(3)) {
+                case 0:
+                    int slot = rand.nextInt(kernel.getNumSlots());
+                    int room = rand.nextInt(kernel.getNumRooms());
+                    delta = state.deltaMove(a, slot, room);
+                    state.move(a, slot, room);
+                    break;
+                case 1:
+                    delta = state.deltaSwap(a, b);
+                    state.swap(a, b);
+                    break;
+                default:
+                    delta = state.deltaSwapSlots(a, b);
+                    state.swapSlots(a, b);
+                    break;
+            }
+            assertEquals(before + delta, state.getViolations());
+            assertEquals(kernel.evaluate(state.toGenes(), true), state.getViolations());
+        }
+    }
+
+    private static ConstraintModel constraints(TimetableData data) {
+        return new ConstraintModel()
+                .teacherUnavailable(0, 1, 0, 4, data.getDaysPerWeek(), data.getHoursPerDay())
+                .teacherUnavailable(1, 4, 2, 8, data.getDaysPerWeek(), data.getHoursPerDay())
+                .roomFeature(0, "lab")
+                .roomFeature(3, "lab")
+                .roomFeature(2, "projector")
+                .subjectRequires("Chemistry", "lab")
+                .subjectRequires("CS", "projector")
+                .maxConsecutiveHours(3);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.common.export;
+
+import org.example.common.export.TimetableExport.Format;
+import org.example.common.export.TimetableIndex.View;
+import org.example.common.model.Gene;
+import org.example.common.model.Room;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimeSlot;
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimetableExportTest {
+    private static final String SUBJECT = "Art, \"Design\"; Lab\nB";
+
+    private final TimetableData data = new TimetableData(
+            List.of(new SchoolClass(0, SUBJECT, 0, 0, 20), new SchoolClass(1, "Math", 1, 0, 20)),
+            List.of(new Room(0, 30)), 2, 1);
+    private final TimetableIndex index = new TimetableIndex(new Gene[]{
+            new Gene(0, new TimeSlot(1, 2), 0), new Gene(1, new TimeSlot(0, 0), 0)}, data);
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsQuotesAndNewlines() throws IOException {
+        StringWriter out = new StringWriter();
+        TimetableExport.writeCsv(out, index, View.SLOT);
+        assertEquals("day,hour,class,subject,teacher,group,room\n"
+                + "Monday,8,1,Math,1,0,0\n"
+                + "Tuesday,10,0,\"Art, \"\"Design\"\"; Lab\nB\",0,0,0\n", out.toString());
+    }
+
+    @Test
+    void jsonEscapesQuotesAndNewlines() throws IOException {
+        StringWriter out = new StringWriter();
+        TimetableExport.writeJson(out, index, View.TEACHER);
+        String json = out.toString();
+        assertTrue(json.contains("\"subject\":\"Art, \\\"Design\\\"; Lab\\nB\""), json);
+        assertTrue(json.startsWith("{\"view\":\"teacher\",\"rows\":[\n{\"teacher\":0,"), json);
+    }
+
+    @Test
+    void icsEscapesTextAndOnlyBreaksLinesWithCrlf() throws IOException {
+        StringWriter out = new StringWriter();
+        TimetableExport.writeIcs(out, index, View.SLOT, LocalDate.of(2024, 9, 4));
+        String ics = out.toString();
+        assertTrue(ics.contains("SUMMARY:Art\\, \"Design\"\\; Lab\\nB\r\n"), ics);
+        assertTrue(ics.contains("DTSTART:20240903T100000\r\n"), ics); // Tuesday of that week, hour 2
+        for (int i = ics.indexOf('\n'); i >= 0; i = ics.indexOf('\n', i + 1)) {
+            assertEquals('\r', ics.charAt(i - 1), "bare line feed at " + i);
+        }
+    }
+
+    @Test
+    void formatComesFromTheExtension() {
+        assertEquals(Format.JSON, Format.fromFileName("week.JSON"));
+        assertEquals(Format.ICS, Format.fromFileName("out/week.ics"));
+        assertThrows(IllegalArgumentException.class, () -> Format.fromFileName("week.txt"));
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.common.export;
+
+import org.example.common.export.TimetableIndex.Rows;
+import org.example.common.export.TimetableIndex.View;
+import org.example.common.model.Gene;
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimeSlot;
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimetableIndexTest {
+    private final TimetableData data = TimetableData.generateRandom(120, 6, 9, 7, 5L);
+
+    @Test
+    void everyViewListsEachClassOnceInItsRowOrderedBySlot() {
+        TimetableIndex index = new TimetableIndex(randomGenes(11L), data);
+        for (View view : View.values()) {
+            Rows rows = index.rows(view);
+            boolean[] seen = new boolean[data.getClasses().size()];
+            for (int row = 0; row < rows.size(); row++) {
+                for (int p = rows.from(row); p < rows.to(row); p++) {
+                    int c = rows.classAt(p);
+                    assertTrue(!seen[c], view + ": class " + c + " listed twice");
+                    seen[c] = true;
+                    assertEquals(row, key(view, index, c), view + ": class " + c + " in the wrong row");
+                    if (p > rows.from(row)) {
+                        int previous = rows.classAt(p - 1);
+                        // Slot order, and class order within a slot (the sorts are stable)
+                        assertTrue(index.getSlot(previous) < index.getSlot(c)
+                                        || index.getSlot(previous) == index.getSlot(c) && previous < c,
+                                view + ": row " + row + " not ordered by slot");
+                    }
+                }
+            }
+            for (int c = 0; c < seen.length; c++) {
+                assertTrue(seen[c], view + ": class " + c + " missing");
+            }
+        }
+    }
+
+    @Test
+    void rowCountsMatchTheViewKeys() {
+        TimetableIndex index = new TimetableIndex(randomGenes(3L), data);
+        assertEquals(data.getTotalTimeSlots(), index.rows(View.SLOT).size());
+        assertEquals(data.getNumTeachers(), index.rows(View.TEACHER).size());
+        assertEquals(data.getNumStudentGroups(), index.rows(View.GROUP).size());
+        assertEquals(data.getRooms().size(), index.rows(View.ROOM).size());
+    }
+
+    private Gene[] randomGenes(long seed) {
+        Random rand = new Random(seed);
+        Gene[] genes = new Gene[data.getClasses().size()];
+        for (int c = 0; c < genes.length; c++) {
+            genes[c] = new Gene(c, new TimeSlot(rand.nextInt(data.getDaysPerWeek()), rand.nextInt(data.getHoursPerDay())),
+                    rand.nextInt(data.getRooms().size()));
+        }
+        return genes;
+    }
+
+    private int key(View view, TimetableIndex index, int classId) {
+        SchoolClass cls = data.getClass(classId);
+        switch (view) {
+            case SLOT: return index.getSlot(classId);
+            case TEACHER: return cls.getTeacherId();
+            case GROUP: return cls.getStudentGroup();
+            default: return index.getRoom(classId);
+        }
+    }
+}
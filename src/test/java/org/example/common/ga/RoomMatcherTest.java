@@ -0,0 +1,50 @@
+package org.example.common.ga;
+
+import org.example.common.constraints.ConstraintModel;
+import org.example.common.model.Gene;
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomMatcherTest {
+
+    @Test
+    void decodedFitnessMatchesKernelOnCapacityOnly() {
+        checkDecoding(TimetableData.generateRandom(300, 4, 20, 15, 5L));
+    }
+
+    @Test
+    void decodedFitnessMatchesKernelWithRoomFeatures() {
+        TimetableData data = TimetableData.generateRandom(300, 4, 20, 15, 5L).withConstraints(new ConstraintModel()
+                .roomFeature(1, "lab")
+                .roomFeature(3, "projector")
+                .subjectRequires("Chemistry", "lab")
+                .subjectRequires("Biology", "lab")
+                .subjectRequires("CS", "projector"));
+        checkDecoding(data);
+    }
+
+    /**
+     * The decoder's count must be what the kernel reports for the rooms it chose, and never worse
+     * than the random rooms the genes started with (the matching is optimal per slot)
+     */
+    private static void checkDecoding(TimetableData data) {
+        RoomMatcher matcher = new RoomMatcher(data);
+        Random rand = new Random(17L);
+        for (int i = 0; i < 50; i++) {
+            Individual random = Individual.createRandom(data, rand);
+            int withRandomRooms = random.calculateFitness();
+
+            Individual decoded = new Individual(random.getGenes().clone(), data, matcher);
+            int fitness = decoded.calculateFitness();
+            Gene[] genes = decoded.getGenes();
+
+            assertEquals(data.getKernel().evaluate(genes, true), fitness);
+            assertTrue(fitness <= withRandomRooms);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.common.incremental;
+
+import org.example.common.model.SchoolClass;
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProblemDeltaTest {
+    private final TimetableData base = TimetableData.generateRandom(40, 8, 20, 20, 9L);
+
+    @Test
+    void removeAndAddRenumberClasses() {
+        ProblemDelta.Applied applied = new ProblemDelta()
+                .add("remove-class", "5")
+                .add("remove-class", "17")
+                .add("add-class", "Music", "2", "3", "25")
+                .add("change-size", "20", "30")
+                .apply(base);
+        TimetableData data = applied.getData();
+        int[] oldToNew = applied.getOldToNew();
+
+        assertEquals(39, data.getClasses().size());
+        assertEquals(-1, oldToNew[5]);
+        assertEquals(-1, oldToNew[17]);
+        assertEquals(4, oldToNew[4]);
+        assertEquals(5, oldToNew[6]);
+        assertEquals(16, oldToNew[18]);
+        assertEquals(37, oldToNew[39]);
+        for (int i = 0; i < data.getClasses().size(); i++) {
+            assertEquals(i, data.getClass(i).getId());
+        }
+
+        // Surviving classes keep everything but their id; only the change-size is changed
+        for (int old = 0; old < oldToNew.length; old++) {
+            if (oldToNew[old] < 0 || old == 20) continue;
+            SchoolClass before = base.getClass(old), after = data.getClass(oldToNew[old]);
+            assertEquals(before.getSubject(), after.getSubject());
+            assertEquals(before.getTeacherId(), after.getTeacherId());
+            assertEquals(before.getStudentGroup(), after.getStudentGroup());
+            assertEquals(before.getRequiredCapacity(), after.getRequiredCapacity());
+        }
+        assertEquals(30, data.getClass(oldToNew[20]).getRequiredCapacity());
+
+        SchoolClass added = data.getClass(38);
+        assertEquals("Music", added.getSubject());
+        assertEquals(2, added.getTeacherId());
+        assertEquals(3, added.getStudentGroup());
+        assertArrayEquals(new int[]{oldToNew[20], 38}, applied.getChangedClasses());
+    }
+
+    @Test
+    void removedClassIsNotReportedAsChanged() {
+        ProblemDelta.Applied applied = new ProblemDelta()
+                .add("change-teacher", "5", "1")
+                .add("remove-class", "5")
+                .apply(base);
+        assertArrayEquals(new int[0], applied.getChangedClasses());
+        assertEquals(-1, applied.getOldToNew()[5]);
+    }
+
+    @Test
+    void invalidOperationsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ProblemDelta().add("remove-class"));
+        assertThrows(IllegalArgumentException.class, () -> new ProblemDelta().add("rename-class", "1"));
+        assertThrows(IllegalArgumentException.class, () -> new ProblemDelta().add("remove-class", "40").apply(base));
+        assertThrows(IllegalArgumentException.class, () -> new ProblemDelta().add("change-size", "1", "-3").apply(base));
+    }
+}
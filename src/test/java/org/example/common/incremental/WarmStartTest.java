@@ -0,0 +1,92 @@
+package org.example.common.incremental;
+
+import org.example.common.constraints.ConstraintModel;
+import org.example.common.ga.Individual;
+import org.example.common.model.Gene;
+import org.example.common.model.Room;
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarmStartTest {
+    private final TimetableData base = TimetableData.generateRandom(40, 8, 20, 20, 9L);
+
+    @Test
+    void survivorsKeepTheirPlacementsAcrossRemoveAndAdd() {
+        Gene[] previous = repairedSolution(base);
+        ProblemDelta delta = new ProblemDelta()
+                .add("remove-class", "5")
+                .add("remove-class", "17")
+                .add("add-class", "Music", "2", "3", "25");
+
+        WarmStart warmStart = WarmStart.prepare(base, previous, delta);
+        Gene[] repaired = warmStart.getRepaired().getGenes();
+        int[] oldToNew = delta.apply(base).getOldToNew();
+
+        assertEquals(39, repaired.length);
+        for (int old = 0; old < oldToNew.length; old++) {
+            if (oldToNew[old] < 0) continue;
+            Gene gene = repaired[oldToNew[old]];
+            assertEquals(oldToNew[old], gene.getClassId());
+            assertEquals(previous[old].getTimeSlot(), gene.getTimeSlot());
+            assertEquals(previous[old].getRoomId(), gene.getRoomId());
+        }
+        // Removing classes frees resources: only the added class had to be placed
+        assertArrayEquals(new int[]{38}, warmStart.getAffectedGenes());
+        assertEquals(0, warmStart.getRepaired().getFitness());
+    }
+
+    @Test
+    void unavailabilityMovesTheTeachersClassesOut() {
+        Gene[] previous = repairedSolution(base);
+        int teacher = base.getClass(0).getTeacherId();
+        int day = previous[0].getTimeSlot().getDay();
+        ProblemDelta delta = new ProblemDelta().add("teacher-unavailable", String.valueOf(teacher),
+                String.valueOf(day), "0", String.valueOf(base.getHoursPerDay()));
+
+        WarmStart warmStart = WarmStart.prepare(base, previous, delta);
+        Gene[] repaired = warmStart.getRepaired().getGenes();
+
+        assertTrue(Arrays.stream(warmStart.getAffectedGenes()).anyMatch(id -> id == 0));
+        for (Gene gene : repaired) {
+            if (base.getClass(gene.getClassId()).getTeacherId() == teacher) {
+                assertTrue(gene.getTimeSlot().getDay() != day);
+            }
+        }
+        // The delta extends a copy: the base instance keeps its constraints
+        assertEquals(0L, base.getConstraints().getTeacherUnavailableSlots(teacher));
+    }
+
+    @Test
+    void repairRespectsRoomFeatures() {
+        // The largest room fits every class, so the lab is the only penalty-free room for the subject
+        int lab = base.getRooms().stream().max(Comparator.comparingInt(Room::getCapacity)).orElseThrow().getId();
+        TimetableData data = base.withConstraints(new ConstraintModel()
+                .roomFeature(lab, "lab")
+                .subjectRequires(base.getClass(3).getSubject(), "lab"));
+        Gene[] previous = repairedSolution(base);
+
+        WarmStart warmStart = WarmStart.prepare(data, previous, new ProblemDelta());
+        Individual repaired = warmStart.getRepaired();
+
+        assertEquals(lab, repaired.getGenes()[3].getRoomId());
+        assertEquals(data.getKernel().evaluate(repaired.getGenes(), true), repaired.getFitness());
+    }
+
+    /**
+     * A conflict-free timetable of the instance (warm start without changes from a random one)
+     */
+    static Gene[] repairedSolution(TimetableData data) {
+        Gene[] random = Individual.createRandom(data, new Random(1L)).getGenes();
+        Gene[] solution = WarmStart.prepare(data, random, new ProblemDelta()).getRepaired().getGenes();
+        assertEquals(0, new Individual(solution.clone(), data).getFitness());
+        return solution;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.common.instance;
+
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryInstanceFormatTest {
+    private final TimetableData data = TimetableData.generateRandom(50, 6, 12, 8, 7L);
+
+    @Test
+    void encodeDecodeRoundTrip() throws IOException {
+        assertSameInstance(data, BinaryInstanceFormat.decode(ByteBuffer.wrap(BinaryInstanceFormat.encode(data))));
+    }
+
+    @Test
+    void fileRoundTrip() throws IOException {
+        Path file = Files.createTempDirectory("instance-test").resolve("random" + BinaryInstanceFormat.EXTENSION);
+        BinaryInstanceFormat.write(file, data);
+        assertSameInstance(data, BinaryInstanceFormat.read(file));
+    }
+
+    @Test
+    void corruptedChecksumIsRejected() {
+        byte[] bytes = BinaryInstanceFormat.encode(data);
+        bytes[bytes.length / 2] ^= 1;
+        IOException e = assertThrows(IOException.class, () -> BinaryInstanceFormat.decode(ByteBuffer.wrap(bytes)));
+        assertEquals("Instance checksum mismatch", e.getMessage());
+    }
+
+    private static void assertSameInstance(TimetableData expected, TimetableData actual) {
+        assertEquals(expected.getNumTeachers(), actual.getNumTeachers());
+        assertEquals(expected.getNumStudentGroups(), actual.getNumStudentGroups());
+        assertEquals(expected.getRooms(), actual.getRooms());
+        assertEquals(expected.getClasses(), actual.getClasses());
+        assertEquals(expected.fingerprint(), actual.fingerprint());
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.common.instance;
+
+import org.example.common.model.TimetableData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvInstanceReaderTest {
+
+    @Test
+    void readsRoomsAndClasses() throws IOException {
+        Path dir = instance("room,capacity\nA,30\nB,60\n", "subject,teacher,group,size\nMath,T1,G1,25\nArt,T2,G1,25\n");
+        TimetableData data = CsvInstanceReader.read(dir);
+        assertEquals(2, data.getRooms().size());
+        assertEquals(2, data.getClasses().size());
+        assertEquals(2, data.getNumTeachers());
+    }
+
+    @Test
+    void headerOnlyClassesFileIsRejected() throws IOException {
+        Path dir = instance("room,capacity\nA,30\n", "subject,teacher,group,size\n");
+        IOException e = assertThrows(IOException.class, () -> CsvInstanceReader.read(dir));
+        assertEquals(dir.resolve(CsvInstanceReader.CLASSES_FILE) + ": no classes", e.getMessage());
+    }
+
+    private static Path instance(String rooms, String classes) throws IOException {
+        Path dir = Files.createTempDirectory("csv-instance-test");
+        Files.writeString(dir.resolve(CsvInstanceReader.ROOMS_FILE), rooms);
+        Files.writeString(dir.resolve(CsvInstanceReader.CLASSES_FILE), classes);
+        return dir;
+    }
+}
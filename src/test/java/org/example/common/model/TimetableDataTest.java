@@ -0,0 +1,36 @@
+package org.example.common.model;
+
+import org.example.common.constraints.ConstraintModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class TimetableDataTest {
+    private final TimetableData data = new TimetableData(
+            List.of(new SchoolClass(0, "Math", 0, 0, 25),
+                    new SchoolClass(1, "Chemistry", 1, 1, 25),
+                    new SchoolClass(2, "Chemistry", 2, 2, 45)),
+            List.of(new Room(0, 20), new Room(1, 30), new Room(2, 30), new Room(3, 40)),
+            3, 3);
+
+    @Test
+    void roomDomainsFollowCapacity() {
+        assertArrayEquals(new int[]{1, 2, 3}, data.getValidRooms(0));
+        assertArrayEquals(new int[]{1, 2, 3}, data.getValidRooms(1));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, data.getValidRooms(2)); // larger than every room
+    }
+
+    @Test
+    void roomDomainsFollowRequiredFeatures() {
+        TimetableData labs = data.withConstraints(new ConstraintModel()
+                .roomFeature(0, "lab")
+                .roomFeature(2, "lab")
+                .subjectRequires("Chemistry", "lab"));
+        assertArrayEquals(new int[]{1, 2, 3}, labs.getValidRooms(0));
+        assertArrayEquals(new int[]{2}, labs.getValidRooms(1));
+        // No lab is large enough: the rooms with a single violation remain
+        assertArrayEquals(new int[]{0, 2}, labs.getValidRooms(2));
+    }
+}